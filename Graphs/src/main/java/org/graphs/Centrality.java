@@ -0,0 +1,215 @@
+package org.graphs;
+
+import java.util.Arrays;
+import java.util.Random;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveTask;
+import java.util.stream.IntStream;
+
+/**
+ * Node centrality scores over a {@link CsrGraph}, used to find the robots that carry most
+ * of the traffic.
+ *
+ * Betweenness follows Brandes' algorithm over hop-count shortest paths. Sources are split
+ * into ForkJoin tasks, each with its own BFS workspace and its own score accumulator, and
+ * the accumulators are summed as the tasks join, so no shared state is written during the
+ * searches. Scores count ordered pairs (s, t); on an undirected graph every pair is counted
+ * in both directions. PageRank is a parallel pull-style power iteration.
+ */
+public final class Centrality {
+
+    public static final double DEFAULT_DAMPING = 0.85;
+    public static final double DEFAULT_TOLERANCE = 1e-9;
+    public static final int DEFAULT_MAX_ITERATIONS = 100;
+
+    private Centrality() {
+    }
+
+    /**
+     * Exact betweenness centrality, one search per node.
+     */
+    public static double[] betweenness(CsrGraph<?> graph) {
+        int[] sources = new int[graph.nodeCount()];
+        for (int v = 0; v < sources.length; v++) {
+            sources[v] = v;
+        }
+        return betweenness(graph, sources, 1.0, ForkJoinPool.commonPool());
+    }
+
+    /**
+     * Betweenness estimated from searches out of {@code samples} random pivot nodes, scaled by
+     * n / samples so that the scores are comparable to {@link #betweenness(CsrGraph)}.
+     */
+    public static double[] approximateBetweenness(CsrGraph<?> graph, int samples, long seed) {
+        int n = graph.nodeCount();
+        if (samples >= n) {
+            return betweenness(graph);
+        }
+        if (samples < 1) {
+            throw new IllegalArgumentException("At least one pivot is required but got " + samples + ".");
+        }
+        int[] order = new int[n];
+        for (int v = 0; v < n; v++) {
+            order[v] = v;
+        }
+        Random random = new Random(seed);
+        for (int i = 0; i < samples; i++) {
+            int j = i + random.nextInt(n - i);
+            int swap = order[i];
+            order[i] = order[j];
+            order[j] = swap;
+        }
+        return betweenness(graph, Arrays.copyOf(order, samples), (double) n / samples, ForkJoinPool.commonPool());
+    }
+
+    public static double[] betweenness(CsrGraph<?> graph, int[] sources, double scale, ForkJoinPool pool) {
+        int chunk = Math.max(1, sources.length / (pool.getParallelism() * 4));
+        double[] scores = pool.invoke(new BrandesTask(graph, sources, 0, sources.length, chunk));
+        if (scale != 1.0) {
+            for (int v = 0; v < scores.length; v++) {
+                scores[v] *= scale;
+            }
+        }
+        return scores;
+    }
+
+    private static class BrandesTask extends RecursiveTask<double[]> {
+
+        private static final long serialVersionUID = 1L;
+
+        private final transient CsrGraph<?> graph;
+        private final int[] sources;
+        private final int from;
+        private final int to;
+        private final int chunk;
+
+        BrandesTask(CsrGraph<?> graph, int[] sources, int from, int to, int chunk) {
+            this.graph = graph;
+            this.sources = sources;
+            this.from = from;
+            this.to = to;
+            this.chunk = chunk;
+        }
+
+        @Override
+        protected double[] compute() {
+            if (to - from > chunk) {
+                int middle = (from + to) >>> 1;
+                BrandesTask left = new BrandesTask(graph, sources, from, middle, chunk);
+                left.fork();
+                double[] result = new BrandesTask(graph, sources, middle, to, chunk).compute();
+                double[] other = left.join();
+                for (int v = 0; v < result.length; v++) {
+                    result[v] += other[v];
+                }
+                return result;
+            }
+
+            int n = graph.nodeCount();
+            double[] scores = new double[n];
+            int[] distance = new int[n];
+            double[] paths = new double[n];
+            double[] dependency = new double[n];
+            int[] order = new int[n];
+            Arrays.fill(distance, -1);
+
+            for (int i = from; i < to; i++) {
+                int source = sources[i];
+                int head = 0;
+                int tail = 0;
+                order[tail++] = source;
+                distance[source] = 0;
+                paths[source] = 1.0;
+
+                // BFS order doubles as the stack of nodes by non-decreasing distance
+                while (head < tail) {
+                    int u = order[head++];
+                    for (int e = graph.edgeStart(u); e < graph.edgeEnd(u); e++) {
+                        int v = graph.target(e);
+                        if (distance[v] < 0) {
+                            distance[v] = distance[u] + 1;
+                            order[tail++] = v;
+                        }
+                        if (distance[v] == distance[u] + 1) {
+                            paths[v] += paths[u];
+                        }
+                    }
+                }
+
+                for (int j = tail - 1; j >= 0; j--) {
+                    int u = order[j];
+                    double sum = 0.0;
+                    for (int e = graph.edgeStart(u); e < graph.edgeEnd(u); e++) {
+                        int v = graph.target(e);
+                        if (distance[v] == distance[u] + 1) {
+                            sum += paths[u] / paths[v] * (1.0 + dependency[v]);
+                        }
+                    }
+                    dependency[u] = sum;
+                    if (u != source) {
+                        scores[u] += sum;
+                    }
+                }
+
+                for (int j = 0; j < tail; j++) {
+                    int u = order[j];
+                    distance[u] = -1;
+                    paths[u] = 0.0;
+                    dependency[u] = 0.0;
+                }
+            }
+            return scores;
+        }
+    }
+
+    public static double[] pageRank(CsrGraph<?> graph) {
+        return pageRank(graph, DEFAULT_DAMPING, DEFAULT_TOLERANCE, DEFAULT_MAX_ITERATIONS);
+    }
+
+    /**
+     * PageRank by power iteration. Every node pulls rank from its in-neighbors in parallel;
+     * the rank of nodes without outgoing edges is spread evenly over all nodes.
+     * @param damping Probability of following a link instead of jumping, usually 0.85.
+     * @param tolerance Stop once the L1 change of the rank vector falls below this value.
+     * @param maxIterations Upper bound on the number of iterations.
+     * @return The rank of every node, summing to 1.
+     */
+    public static double[] pageRank(CsrGraph<?> graph, double damping, double tolerance, int maxIterations) {
+        int n = graph.nodeCount();
+        if (n == 0) {
+            return new double[0];
+        }
+        CsrGraph<?> incoming = graph.transpose();
+        double[] rank = new double[n];
+        double[] next = new double[n];
+        double[] share = new double[n];
+        Arrays.fill(rank, 1.0 / n);
+
+        for (int iteration = 0; iteration < maxIterations; iteration++) {
+            double[] current = rank;
+            double dangling = IntStream.range(0, n).parallel().mapToDouble(v -> {
+                int degree = graph.degree(v);
+                share[v] = degree == 0 ? 0.0 : current[v] / degree;
+                return degree == 0 ? current[v] : 0.0;
+            }).sum();
+
+            double base = (1.0 - damping) / n + damping * dangling / n;
+            double[] target = next;
+            double change = IntStream.range(0, n).parallel().mapToDouble(v -> {
+                double sum = 0.0;
+                for (int e = incoming.edgeStart(v); e < incoming.edgeEnd(v); e++) {
+                    sum += share[incoming.target(e)];
+                }
+                target[v] = base + damping * sum;
+                return Math.abs(target[v] - current[v]);
+            }).sum();
+
+            next = rank;
+            rank = target;
+            if (change < tolerance) {
+                break;
+            }
+        }
+        return rank;
+    }
+}
@@ -0,0 +1,358 @@
+package org.graphs;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.Iterator;
+import java.util.List;
+import java.util.NoSuchElementException;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * Thread-safe mutable graph for live topology updates, keyed by node data.
+ *
+ * The adjacency of every node is an immutable {@link NeighborSnapshot} that writers replace
+ * wholesale (copy-on-write). Writers only block each other when they touch nodes that map
+ * to the same lock stripe; readers never block, they pick up the current snapshot of a node
+ * with a volatile read and can iterate it while writers carry on. Like an indexed
+ * {@link Graph}, the graph keeps at most one edge per ordered pair of nodes and adding
+ * another edge replaces the weight.
+ */
+public class ConcurrentGraph<T> {
+
+    private static final int STRIPES = 64;
+
+    private final ConcurrentHashMap<T, Vertex<T>> vertices;
+    private final AtomicInteger nextId;
+    private final ReentrantLock[] locks;
+
+    public ConcurrentGraph() {
+        vertices = new ConcurrentHashMap<>();
+        nextId = new AtomicInteger();
+        locks = new ReentrantLock[STRIPES];
+        for (int i = 0; i < STRIPES; i++) {
+            locks[i] = new ReentrantLock();
+        }
+    }
+
+    /**
+     * Immutable adjacency of one node at one point in time.
+     */
+    public static final class NeighborSnapshot<T> implements Iterable<T> {
+
+        @SuppressWarnings({"rawtypes", "unchecked"})
+        private static final NeighborSnapshot<?> EMPTY = new NeighborSnapshot(new Vertex[0], new double[0], new boolean[0]);
+
+        private final Vertex<T>[] targets;
+        private final double[] weights;
+        private final boolean[] undirected;
+
+        private NeighborSnapshot(Vertex<T>[] targets, double[] weights, boolean[] undirected) {
+            this.targets = targets;
+            this.weights = weights;
+            this.undirected = undirected;
+        }
+
+        public int size() {
+            return targets.length;
+        }
+
+        public T getNeighbor(int index) {
+            return targets[index].data;
+        }
+
+        public double getWeight(int index) {
+            return weights[index];
+        }
+
+        public boolean isUndirected(int index) {
+            return undirected[index];
+        }
+
+        @Override
+        public Iterator<T> iterator() {
+            return new Iterator<T>() {
+                private int next;
+
+                @Override
+                public boolean hasNext() {
+                    return next < targets.length;
+                }
+
+                @Override
+                public T next() {
+                    if (next >= targets.length) {
+                        throw new NoSuchElementException();
+                    }
+                    return targets[next++].data;
+                }
+            };
+        }
+
+        private int indexOf(Vertex<?> target) {
+            for (int i = 0; i < targets.length; i++) {
+                if (targets[i] == target) {
+                    return i;
+                }
+            }
+            return -1;
+        }
+
+        private NeighborSnapshot<T> with(Vertex<T> target, double weight, boolean undirectedEdge) {
+            int index = indexOf(target);
+            if (index >= 0) {
+                double[] newWeights = weights.clone();
+                boolean[] newUndirected = undirected.clone();
+                newWeights[index] = weight;
+                newUndirected[index] = undirectedEdge;
+                return new NeighborSnapshot<>(targets, newWeights, newUndirected);
+            }
+            int size = targets.length;
+            Vertex<T>[] newTargets = Arrays.copyOf(targets, size + 1);
+            double[] newWeights = Arrays.copyOf(weights, size + 1);
+            boolean[] newUndirected = Arrays.copyOf(undirected, size + 1);
+            newTargets[size] = target;
+            newWeights[size] = weight;
+            newUndirected[size] = undirectedEdge;
+            return new NeighborSnapshot<>(newTargets, newWeights, newUndirected);
+        }
+
+        private NeighborSnapshot<T> without(int index) {
+            int size = targets.length;
+            Vertex<T>[] newTargets = Arrays.copyOf(targets, size - 1);
+            double[] newWeights = Arrays.copyOf(weights, size - 1);
+            boolean[] newUndirected = Arrays.copyOf(undirected, size - 1);
+            if (index < size - 1) {
+                newTargets[index] = targets[size - 1];
+                newWeights[index] = weights[size - 1];
+                newUndirected[index] = undirected[size - 1];
+            }
+            return new NeighborSnapshot<>(newTargets, newWeights, newUndirected);
+        }
+    }
+
+    private static final class Vertex<T> {
+        final T data;
+        final int id;
+        volatile NeighborSnapshot<T> adjacency;
+
+        @SuppressWarnings("unchecked")
+        Vertex(T data, int id) {
+            this.data = data;
+            this.id = id;
+            this.adjacency = (NeighborSnapshot<T>) NeighborSnapshot.EMPTY;
+        }
+    }
+
+    /**
+     * @return true if the node was not part of the graph yet.
+     */
+    public boolean addNode(T data) {
+        if (vertices.containsKey(data)) {
+            return false;
+        }
+        Vertex<T> vertex = new Vertex<>(data, nextId.getAndIncrement());
+        return vertices.putIfAbsent(data, vertex) == null;
+    }
+
+    public boolean containsNode(T data) {
+        return vertices.containsKey(data);
+    }
+
+    public int nodeCount() {
+        return vertices.size();
+    }
+
+    /**
+     * Returns a live, weakly consistent view of the node data.
+     */
+    public Set<T> getNodes() {
+        return Collections.unmodifiableSet(vertices.keySet());
+    }
+
+    public void addDirectedEdge(T from, T to, double weight) {
+        Vertex<T> fromVertex = vertex(from);
+        Vertex<T> toVertex = vertex(to);
+        ReentrantLock lock = lockFor(fromVertex);
+        lock.lock();
+        try {
+            fromVertex.adjacency = fromVertex.adjacency.with(toVertex, weight, false);
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    public void addDirectedEdge(T from, T to) {
+        addDirectedEdge(from, to, 0.0);
+    }
+
+    /**
+     * Adds the edge to the adjacency of both nodes. Both updates happen under the locks of
+     * both nodes, so no reader that takes the two snapshots after the call returns sees
+     * only one half.
+     */
+    public void addUndirectedEdge(T node1, T node2, double weight) {
+        Vertex<T> vertex1 = vertex(node1);
+        Vertex<T> vertex2 = vertex(node2);
+        lockBoth(vertex1, vertex2);
+        try {
+            vertex1.adjacency = vertex1.adjacency.with(vertex2, weight, true);
+            if (vertex1 != vertex2) {
+                vertex2.adjacency = vertex2.adjacency.with(vertex1, weight, true);
+            }
+        } finally {
+            unlockBoth(vertex1, vertex2);
+        }
+    }
+
+    public void addUndirectedEdge(T node1, T node2) {
+        addUndirectedEdge(node1, node2, 0.0);
+    }
+
+    /**
+     * Removes the edge leading from one node to the other. An undirected edge is removed
+     * from both nodes.
+     * @return true if an edge was removed.
+     */
+    public boolean removeEdge(T from, T to) {
+        Vertex<T> fromVertex = vertices.get(from);
+        Vertex<T> toVertex = vertices.get(to);
+        if (fromVertex == null || toVertex == null) {
+            return false;
+        }
+        lockBoth(fromVertex, toVertex);
+        try {
+            int index = fromVertex.adjacency.indexOf(toVertex);
+            if (index < 0) {
+                return false;
+            }
+            boolean undirectedEdge = fromVertex.adjacency.undirected[index];
+            fromVertex.adjacency = fromVertex.adjacency.without(index);
+            if (undirectedEdge && fromVertex != toVertex) {
+                int mirror = toVertex.adjacency.indexOf(fromVertex);
+                if (mirror >= 0 && toVertex.adjacency.undirected[mirror]) {
+                    toVertex.adjacency = toVertex.adjacency.without(mirror);
+                }
+            }
+            return true;
+        } finally {
+            unlockBoth(fromVertex, toVertex);
+        }
+    }
+
+    public boolean hasEdge(T from, T to) {
+        Vertex<T> fromVertex = vertices.get(from);
+        Vertex<T> toVertex = vertices.get(to);
+        return fromVertex != null && toVertex != null && fromVertex.adjacency.indexOf(toVertex) >= 0;
+    }
+
+    /**
+     * Returns the weight of the edge leading from one node to the other, or NaN if there is none.
+     */
+    public double getWeight(T from, T to) {
+        Vertex<T> fromVertex = vertices.get(from);
+        Vertex<T> toVertex = vertices.get(to);
+        if (fromVertex == null || toVertex == null) {
+            return Double.NaN;
+        }
+        NeighborSnapshot<T> snapshot = fromVertex.adjacency;
+        int index = snapshot.indexOf(toVertex);
+        return index < 0 ? Double.NaN : snapshot.weights[index];
+    }
+
+    /**
+     * Returns the current adjacency of the node without blocking. The snapshot never changes,
+     * later updates install a new one.
+     */
+    @SuppressWarnings("unchecked")
+    public NeighborSnapshot<T> getNeighbors(T node) {
+        Vertex<T> vertex = vertices.get(node);
+        return vertex == null ? (NeighborSnapshot<T>) NeighborSnapshot.EMPTY : vertex.adjacency;
+    }
+
+    /**
+     * Copies the graph into a {@link CsrGraph}. Every node's adjacency is taken from a single
+     * snapshot; updates that run concurrently with the copy may be seen for some nodes and not
+     * for others. Node ids follow the order in which nodes were added.
+     */
+    public CsrGraph<T> freeze() {
+        List<Vertex<T>> snapshot = new ArrayList<>(vertices.values());
+        snapshot.sort((a, b) -> Integer.compare(a.id, b.id));
+        int[] positions = new int[nextId.get()];
+        Arrays.fill(positions, -1);
+        for (int i = 0; i < snapshot.size(); i++) {
+            positions[snapshot.get(i).id] = i;
+        }
+
+        List<NeighborSnapshot<T>> adjacencies = new ArrayList<>(snapshot.size());
+        int[] offsets = new int[snapshot.size() + 1];
+        List<T> data = new ArrayList<>(snapshot.size());
+        for (int i = 0; i < snapshot.size(); i++) {
+            NeighborSnapshot<T> adjacency = snapshot.get(i).adjacency;
+            int degree = 0;
+            for (Vertex<T> target : adjacency.targets) {
+                if (target.id < positions.length && positions[target.id] >= 0) {
+                    degree++;
+                }
+            }
+            adjacencies.add(adjacency);
+            offsets[i + 1] = offsets[i] + degree;
+            data.add(snapshot.get(i).data);
+        }
+
+        int[] targets = new int[offsets[snapshot.size()]];
+        double[] weights = new double[targets.length];
+        int slot = 0;
+        for (NeighborSnapshot<T> adjacency : adjacencies) {
+            for (int j = 0; j < adjacency.targets.length; j++) {
+                int id = adjacency.targets[j].id;
+                if (id < positions.length && positions[id] >= 0) {
+                    targets[slot] = positions[id];
+                    weights[slot] = adjacency.weights[j];
+                    slot++;
+                }
+            }
+        }
+        return new CsrGraph<>(offsets, targets, weights, data);
+    }
+
+    private Vertex<T> vertex(T data) {
+        Vertex<T> vertex = vertices.get(data);
+        if (vertex == null) {
+            addNode(data);
+            vertex = vertices.get(data);
+        }
+        return vertex;
+    }
+
+    private ReentrantLock lockFor(Vertex<?> vertex) {
+        return locks[vertex.id & (STRIPES - 1)];
+    }
+
+    private void lockBoth(Vertex<?> vertex1, Vertex<?> vertex2) {
+        int stripe1 = vertex1.id & (STRIPES - 1);
+        int stripe2 = vertex2.id & (STRIPES - 1);
+        // Always take the lower stripe first so that two writers cannot deadlock
+        locks[Math.min(stripe1, stripe2)].lock();
+        if (stripe1 != stripe2) {
+            locks[Math.max(stripe1, stripe2)].lock();
+        }
+    }
+
+    private void unlockBoth(Vertex<?> vertex1, Vertex<?> vertex2) {
+        int stripe1 = vertex1.id & (STRIPES - 1);
+        int stripe2 = vertex2.id & (STRIPES - 1);
+        if (stripe1 != stripe2) {
+            locks[Math.max(stripe1, stripe2)].unlock();
+        }
+        locks[Math.min(stripe1, stripe2)].unlock();
+    }
+
+    @Override
+    public String toString() {
+        return "ConcurrentGraph[nodes: " + nodeCount() + "]";
+    }
+}
@@ -0,0 +1,191 @@
+package org.graphs;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.stream.IntStream;
+
+/**
+ * Immutable compressed sparse row (CSR) snapshot of a graph.
+ *
+ * Nodes are identified by the ids 0..n-1. The outgoing edges of node v occupy the slots
+ * {@code edgeStart(v)} up to (excluding) {@code edgeEnd(v)} of the target and weight arrays,
+ * so a traversal can walk them with plain int loops and no allocation:
+ *
+ * <pre>
+ * for (int e = csr.edgeStart(v); e &lt; csr.edgeEnd(v); e++) {
+ *     int w = csr.target(e);
+ *     double weight = csr.weight(e);
+ * }
+ * </pre>
+ *
+ * An undirected edge appears once in the adjacency of each of its endpoints, exactly as it
+ * does in the outgoing edge lists of {@link Node}.
+ */
+public class CsrGraph<T> {
+
+    /**
+     * Callback for {@link CsrGraph#forEachNeighbor(int, NeighborVisitor)}.
+     */
+    @FunctionalInterface
+    public interface NeighborVisitor {
+        void visit(int target, double weight);
+    }
+
+    private final int[] offsets;
+    private final int[] targets;
+    private final double[] weights;
+    private final List<T> data;
+
+    CsrGraph(int[] offsets, int[] targets, double[] weights, List<T> data) {
+        if (offsets.length != data.size() + 1) {
+            throw new IllegalArgumentException("Expected " + (data.size() + 1) + " offsets but got " + offsets.length + ".");
+        }
+        if (targets.length != weights.length || offsets[offsets.length - 1] != targets.length) {
+            throw new IllegalArgumentException("Target and weight arrays do not match the offsets.");
+        }
+        this.offsets = offsets;
+        this.targets = targets;
+        this.weights = weights;
+        this.data = Collections.unmodifiableList(data);
+    }
+
+    /**
+     * Freezes the current state of a graph. Node ids are the positions in {@link Graph#getNodes()}.
+     * @param graph The graph to copy.
+     * @return The CSR snapshot.
+     * @throws IllegalArgumentException if an edge leads to a node that was not added to the graph.
+     */
+    public static <T> CsrGraph<T> fromGraph(Graph<T> graph) {
+        List<Node<T>> nodes = graph.getNodes();
+        int n = nodes.size();
+
+        int[] offsets = new int[n + 1];
+        for (int i = 0; i < n; i++) {
+            offsets[i + 1] = offsets[i] + nodes.get(i).getOutgoingEdges().size();
+        }
+
+        int[] targets = new int[offsets[n]];
+        double[] weights = new double[offsets[n]];
+        List<T> data = new ArrayList<>(n);
+        int slot = 0;
+        for (Node<T> node : nodes) {
+            data.add(node.getData());
+            for (Edge edge : node.getOutgoingEdges()) {
+                int target = graph.indexOf(edge.getOtherNode(node));
+                if (target < 0) {
+                    throw new IllegalArgumentException("Edge " + edge + " leads to a node that is not part of the graph.");
+                }
+                targets[slot] = target;
+                weights[slot] = edge.getWeight();
+                slot++;
+            }
+        }
+        return new CsrGraph<>(offsets, targets, weights, data);
+    }
+
+    public int nodeCount() {
+        return data.size();
+    }
+
+    public int edgeCount() {
+        return targets.length;
+    }
+
+    public int degree(int node) {
+        return offsets[node + 1] - offsets[node];
+    }
+
+    /** First edge slot of the node. */
+    public int edgeStart(int node) {
+        return offsets[node];
+    }
+
+    /** One past the last edge slot of the node. */
+    public int edgeEnd(int node) {
+        return offsets[node + 1];
+    }
+
+    public int target(int edge) {
+        return targets[edge];
+    }
+
+    public double weight(int edge) {
+        return weights[edge];
+    }
+
+    /**
+     * Returns the data of the node with the given id.
+     */
+    public T getData(int node) {
+        return data.get(node);
+    }
+
+    /**
+     * Returns the node data ordered by id.
+     */
+    public List<T> getNodeData() {
+        return data;
+    }
+
+    /**
+     * Returns an undirected copy in which every edge is present in the adjacency of both
+     * endpoints. Parallel edges between the same pair collapse into one with the smaller weight.
+     */
+    public CsrGraph<T> toUndirected() {
+        GraphBuilder<T> builder = new GraphBuilder<>(data, true, Math::min);
+        builder.addEdges(edgeSources(), targets, weights);
+        return builder.buildCsr();
+    }
+
+    /**
+     * Returns a copy with every edge reversed, so that the adjacency of a node lists its
+     * incoming edges.
+     */
+    public CsrGraph<T> transpose() {
+        int n = nodeCount();
+        int[] transposedOffsets = new int[n + 1];
+        for (int target : targets) {
+            transposedOffsets[target + 1]++;
+        }
+        for (int v = 0; v < n; v++) {
+            transposedOffsets[v + 1] += transposedOffsets[v];
+        }
+        int[] cursor = Arrays.copyOf(transposedOffsets, n);
+        int[] sources = new int[targets.length];
+        double[] transposedWeights = new double[targets.length];
+        for (int v = 0; v < n; v++) {
+            for (int e = offsets[v]; e < offsets[v + 1]; e++) {
+                int slot = cursor[targets[e]]++;
+                sources[slot] = v;
+                transposedWeights[slot] = weights[e];
+            }
+        }
+        return new CsrGraph<>(transposedOffsets, sources, transposedWeights, new ArrayList<>(data));
+    }
+
+    /**
+     * Returns the source node of every edge slot.
+     */
+    int[] edgeSources() {
+        int[] sources = new int[targets.length];
+        IntStream.range(0, nodeCount()).parallel().forEach(v -> {
+            for (int e = offsets[v]; e < offsets[v + 1]; e++) {
+                sources[e] = v;
+            }
+        });
+        return sources;
+    }
+
+    public void forEachNeighbor(int node, NeighborVisitor visitor) {
+        for (int e = offsets[node]; e < offsets[node + 1]; e++) {
+            visitor.visit(targets[e], weights[e]);
+        }
+    }
+
+    @Override
+    public String toString() {
+        return "CsrGraph[nodes: " + nodeCount() + ", edges: " + edgeCount() + "]";
+    }
+}
@@ -0,0 +1,353 @@
+package org.graphs;
+
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.stream.IntStream;
+
+/**
+ * Hop-count distances between the nodes of a {@link Graph}, answered from precomputed
+ * landmark distances instead of a fresh BFS per query.
+ *
+ * On the first query after the graph changed, the oracle freezes an undirected snapshot,
+ * picks k well-connected landmarks and runs one BFS per landmark in parallel. By the triangle
+ * inequality every landmark l then bounds the distance of a and b from both sides,
+ * |d(l, a) - d(l, b)| &lt;= d(a, b) &lt;= d(l, a) + d(l, b), so {@link #lowerBound} and
+ * {@link #upperBound} take O(k). Exact distances are only searched for when the bounds do
+ * not meet, using a bidirectional BFS, and the most recent results are kept in an LRU cache.
+ *
+ * Edge directions are ignored, as links between robots work both ways. Changes made through
+ * the {@link Graph} methods are detected through {@link Graph#getModificationCount()}; after
+ * creating edges directly through the edge constructors call {@link #invalidate()}.
+ * Instances are not thread-safe, every planner thread should use its own oracle.
+ */
+public class DistanceOracle<T> {
+
+    /** Distance reported for nodes that are not connected. */
+    public static final int UNREACHABLE = Integer.MAX_VALUE;
+    public static final int DEFAULT_LANDMARKS = 16;
+    public static final int DEFAULT_CACHE_SIZE = 4096;
+
+    // Search result for nodes in different components, unlike a search cut off by its limit
+    private static final int DISCONNECTED = -1;
+
+    private final Graph<T> graph;
+    private final int landmarkCount;
+    private final Map<Long, Integer> cache;
+
+    private CsrGraph<T> snapshot;
+    private int snapshotVersion;
+    private int[] landmarks;
+    // distances[i][v] is the hop count from landmark i to node v, or -1 if unreachable
+    private int[][] distances;
+
+    // Workspace of the bidirectional search, reused across queries through the stamps
+    private int[] forwardDistance;
+    private int[] backwardDistance;
+    private int[] forwardStamp;
+    private int[] backwardStamp;
+    private int[] forwardQueue;
+    private int[] backwardQueue;
+    private int stamp;
+
+    public DistanceOracle(Graph<T> graph) {
+        this(graph, DEFAULT_LANDMARKS, DEFAULT_CACHE_SIZE);
+    }
+
+    /**
+     * @param graph The graph to answer queries for.
+     * @param landmarks The number k of landmarks; more landmarks give tighter bounds at the
+     *        cost of O(k n) memory and O(k) per bound query.
+     * @param cacheSize The maximum number of exact distances kept in the cache.
+     */
+    public DistanceOracle(Graph<T> graph, int landmarks, int cacheSize) {
+        if (landmarks < 1) {
+            throw new IllegalArgumentException("At least one landmark is required but got " + landmarks + ".");
+        }
+        if (cacheSize < 0) {
+            throw new IllegalArgumentException("The cache size must not be negative but was " + cacheSize + ".");
+        }
+        this.graph = graph;
+        this.landmarkCount = landmarks;
+        this.cache = new LinkedHashMap<>(16, 0.75f, true) {
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<Long, Integer> eldest) {
+                return size() > cacheSize;
+            }
+        };
+    }
+
+    public int lowerBound(Node<T> node1, Node<T> node2) {
+        refresh();
+        return lowerBound(idOf(node1), idOf(node2));
+    }
+
+    public int upperBound(Node<T> node1, Node<T> node2) {
+        refresh();
+        return upperBound(idOf(node1), idOf(node2));
+    }
+
+    /**
+     * Returns the exact hop distance, or {@link #UNREACHABLE} if the nodes are not connected.
+     */
+    public int distance(Node<T> node1, Node<T> node2) {
+        return distance(node1, node2, UNREACHABLE);
+    }
+
+    /**
+     * Returns the exact hop distance if it does not exceed the limit, otherwise
+     * {@link #UNREACHABLE}. The search stops as soon as the limit is passed, and is skipped
+     * entirely when the landmark bounds already decide the query.
+     */
+    public int distance(Node<T> node1, Node<T> node2, int limit) {
+        refresh();
+        return distance(idOf(node1), idOf(node2), limit);
+    }
+
+    /**
+     * Discards the landmark distances and cached results. They are rebuilt by the next query.
+     */
+    public void invalidate() {
+        snapshot = null;
+        cache.clear();
+    }
+
+    /**
+     * Returns the landmark node ids, which are positions in {@link Graph#getNodes()}.
+     */
+    public int[] getLandmarks() {
+        refresh();
+        return landmarks.clone();
+    }
+
+    private int lowerBound(int a, int b) {
+        int bound = 0;
+        for (int[] fromLandmark : distances) {
+            int da = fromLandmark[a];
+            int db = fromLandmark[b];
+            if ((da < 0) != (db < 0)) {
+                // One of the nodes shares the landmark's component and the other does not
+                return UNREACHABLE;
+            }
+            if (da >= 0) {
+                bound = Math.max(bound, Math.abs(da - db));
+            }
+        }
+        return bound;
+    }
+
+    private int upperBound(int a, int b) {
+        if (a == b) {
+            return 0;
+        }
+        int bound = UNREACHABLE;
+        for (int[] fromLandmark : distances) {
+            int da = fromLandmark[a];
+            int db = fromLandmark[b];
+            if (da >= 0 && db >= 0) {
+                bound = Math.min(bound, da + db);
+            }
+        }
+        return bound;
+    }
+
+    private int distance(int a, int b, int limit) {
+        int lower = lowerBound(a, b);
+        if (lower > limit) {
+            return UNREACHABLE;
+        }
+        int upper = upperBound(a, b);
+        if (lower == upper) {
+            return lower;
+        }
+        Long key = ((long) Math.min(a, b) << 32) | Math.max(a, b);
+        Integer cached = cache.get(key);
+        if (cached != null) {
+            return cached <= limit ? cached : UNREACHABLE;
+        }
+        int result = bidirectionalSearch(a, b, Math.min(limit, upper));
+        if (result == DISCONNECTED) {
+            // Cached as well, so pairs in components without a landmark search only once
+            cache.put(key, UNREACHABLE);
+            return UNREACHABLE;
+        }
+        if (result != UNREACHABLE) {
+            cache.put(key, result);
+        }
+        return result;
+    }
+
+    /**
+     * Breadth-first search from both ends, always expanding one full level of the smaller
+     * frontier. Once the frontiers touch, the best meeting found in that level is optimal.
+     * Returns {@link #UNREACHABLE} when the limit is passed and {@link #DISCONNECTED} when
+     * one side ran out of nodes, i.e. the nodes lie in different components.
+     */
+    private int bidirectionalSearch(int source, int target, int limit) {
+        nextStamp();
+        int forwardHead = 0;
+        int forwardTail = 0;
+        int backwardHead = 0;
+        int backwardTail = 0;
+        forwardQueue[forwardTail++] = source;
+        forwardStamp[source] = stamp;
+        forwardDistance[source] = 0;
+        backwardQueue[backwardTail++] = target;
+        backwardStamp[target] = stamp;
+        backwardDistance[target] = 0;
+        int forwardLevel = 0;
+        int backwardLevel = 0;
+
+        while (forwardHead < forwardTail && backwardHead < backwardTail) {
+            if (forwardLevel + backwardLevel + 1 > limit) {
+                return UNREACHABLE;
+            }
+            int best = UNREACHABLE;
+            if (forwardTail - forwardHead <= backwardTail - backwardHead) {
+                int levelEnd = forwardTail;
+                for (; forwardHead < levelEnd; forwardHead++) {
+                    int u = forwardQueue[forwardHead];
+                    for (int e = snapshot.edgeStart(u); e < snapshot.edgeEnd(u); e++) {
+                        int v = snapshot.target(e);
+                        if (backwardStamp[v] == stamp) {
+                            best = Math.min(best, forwardLevel + 1 + backwardDistance[v]);
+                        }
+                        if (forwardStamp[v] != stamp) {
+                            forwardStamp[v] = stamp;
+                            forwardDistance[v] = forwardLevel + 1;
+                            forwardQueue[forwardTail++] = v;
+                        }
+                    }
+                }
+                forwardLevel++;
+            } else {
+                int levelEnd = backwardTail;
+                for (; backwardHead < levelEnd; backwardHead++) {
+                    int u = backwardQueue[backwardHead];
+                    for (int e = snapshot.edgeStart(u); e < snapshot.edgeEnd(u); e++) {
+                        int v = snapshot.target(e);
+                        if (forwardStamp[v] == stamp) {
+                            best = Math.min(best, backwardLevel + 1 + forwardDistance[v]);
+                        }
+                        if (backwardStamp[v] != stamp) {
+                            backwardStamp[v] = stamp;
+                            backwardDistance[v] = backwardLevel + 1;
+                            backwardQueue[backwardTail++] = v;
+                        }
+                    }
+                }
+                backwardLevel++;
+            }
+            if (best != UNREACHABLE) {
+                return best <= limit ? best : UNREACHABLE;
+            }
+        }
+        return DISCONNECTED;
+    }
+
+    private void nextStamp() {
+        if (++stamp == Integer.MAX_VALUE) {
+            Arrays.fill(forwardStamp, 0);
+            Arrays.fill(backwardStamp, 0);
+            stamp = 1;
+        }
+    }
+
+    private int idOf(Node<T> node) {
+        int id = graph.indexOf(node);
+        if (id < 0 || id >= snapshot.nodeCount()) {
+            throw new IllegalArgumentException("Node " + node + " is not part of the graph.");
+        }
+        return id;
+    }
+
+    private void refresh() {
+        if (snapshot != null && snapshotVersion == graph.getModificationCount()) {
+            return;
+        }
+        cache.clear();
+        snapshotVersion = graph.getModificationCount();
+        snapshot = graph.freeze().toUndirected();
+        int n = snapshot.nodeCount();
+        landmarks = chooseLandmarks(snapshot, Math.min(landmarkCount, n));
+        CsrGraph<T> current = snapshot;
+        int[] chosen = landmarks;
+        distances = IntStream.range(0, chosen.length).parallel()
+                .mapToObj(i -> breadthFirst(current, chosen[i]))
+                .toArray(int[][]::new);
+
+        forwardDistance = new int[n];
+        backwardDistance = new int[n];
+        forwardStamp = new int[n];
+        backwardStamp = new int[n];
+        forwardQueue = new int[n];
+        backwardQueue = new int[n];
+        stamp = 0;
+    }
+
+    /**
+     * Picks the nodes of highest degree, skipping neighbors of nodes already picked so that
+     * the landmarks spread over the graph, and filling up with the skipped ones if needed.
+     */
+    private static int[] chooseLandmarks(CsrGraph<?> graph, int count) {
+        int n = graph.nodeCount();
+        Integer[] order = new Integer[n];
+        for (int v = 0; v < n; v++) {
+            order[v] = v;
+        }
+        Arrays.sort(order, Comparator.comparingInt((Integer v) -> graph.degree(v)).reversed());
+
+        int[] chosen = new int[count];
+        int size = 0;
+        boolean[] covered = new boolean[n];
+        for (int v : order) {
+            if (size == count) {
+                break;
+            }
+            if (covered[v]) {
+                continue;
+            }
+            chosen[size++] = v;
+            covered[v] = true;
+            for (int e = graph.edgeStart(v); e < graph.edgeEnd(v); e++) {
+                covered[graph.target(e)] = true;
+            }
+        }
+        boolean[] taken = new boolean[n];
+        for (int i = 0; i < size; i++) {
+            taken[chosen[i]] = true;
+        }
+        for (int v : order) {
+            if (size == count) {
+                break;
+            }
+            if (!taken[v]) {
+                chosen[size++] = v;
+                taken[v] = true;
+            }
+        }
+        return chosen;
+    }
+
+    private static int[] breadthFirst(CsrGraph<?> graph, int source) {
+        int[] distance = new int[graph.nodeCount()];
+        Arrays.fill(distance, -1);
+        int[] queue = new int[graph.nodeCount()];
+        int head = 0;
+        int tail = 0;
+        queue[tail++] = source;
+        distance[source] = 0;
+        while (head < tail) {
+            int u = queue[head++];
+            for (int e = graph.edgeStart(u); e < graph.edgeEnd(u); e++) {
+                int v = graph.target(e);
+                if (distance[v] < 0) {
+                    distance[v] = distance[u] + 1;
+                    queue[tail++] = v;
+                }
+            }
+        }
+        return distance;
+    }
+}
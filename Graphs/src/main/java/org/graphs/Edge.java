@@ -5,6 +5,14 @@ public interface Edge {
     Node<?> getToNode();
     double getWeight();
 
+    /**
+     * Returns the endpoint of this edge that is not the given node. For an edge stored in
+     * a node's outgoing list this is the neighbor reached through the edge.
+     */
+    default Node<?> getOtherNode(Node<?> node) {
+        return getFromNode() == node ? getToNode() : getFromNode();
+    }
+
     @Override
     String toString();
 }
@@ -1,34 +1,176 @@
 package org.graphs;
 
 import java.util.List;
+import java.util.Map;
 import java.util.ArrayList;
+import java.util.HashMap;
 
 public class Graph<T> {
     
     private List<Node<T>> nodes;
+    private Map<Node<?>, Integer> indices;
+    private UnionFind components;
+    private boolean componentsStale;
+    private boolean indexedAdjacency;
+    private int modifications;
 
     public Graph() {
+        this(false);
+    }
+
+    /**
+     * @param indexedAdjacency Whether added nodes switch to indexed adjacency (see
+     *        {@link Node#enableIndex()}), making {@link #hasEdge}, {@link #getEdge} and
+     *        {@link #removeEdge} O(1) expected time instead of O(degree).
+     */
+    public Graph(boolean indexedAdjacency) {
         this.nodes = new ArrayList<>();
+        this.indices = new HashMap<>();
+        this.indexedAdjacency = indexedAdjacency;
     }
-    
+
+    /**
+     * Adds a node unless it is already part of the graph. Nodes are kept once, so that
+     * their position in {@link #getNodes()} is a stable id; adding a node again is ignored
+     * rather than listing it twice. The edge methods of this class add their endpoints
+     * the same way.
+     */
     public void addNode(Node<T> node) {
-        nodes.add(node);
+        if (indices.putIfAbsent(node, nodes.size()) == null) {
+            if (indexedAdjacency) {
+                node.enableIndex();
+            }
+            nodes.add(node);
+            modifications++;
+            if (components != null && !componentsStale) {
+                components.add();
+            }
+        }
+    }
+
+    /**
+     * Returns the position of the node in {@link #getNodes()}, which is also its id in a
+     * {@link CsrGraph} frozen from this graph, or -1 if the node was never added.
+     */
+    public int indexOf(Node<?> node) {
+        Integer index = indices.get(node);
+        return index == null ? -1 : index;
     }
 
     public void addDirectedEdge(Node<T> fromNode, Node<T> toNode, double weight) {
         new DirectedEdge(fromNode, toNode, weight);
+        linked(fromNode, toNode);
     }
 
     public void addDirectedEdge(Node<T> fromNode, Node<T> toNode) {
-        new DirectedEdge(fromNode, toNode);
+        addDirectedEdge(fromNode, toNode, 0.0);
     }
 
     public void addUndirectedEdge(Node<T> node1, Node<T> node2, double weight) {
         new UndirectedEdge(node1, node2, weight);
+        linked(node1, node2);
     }
 
     public void addUndirectedEdge(Node<T> node1, Node<T> node2) {
-        new UndirectedEdge(node1, node2);
+        addUndirectedEdge(node1, node2, 0.0);
+    }
+
+    public boolean hasEdge(Node<T> fromNode, Node<T> toNode) {
+        return fromNode.hasEdgeTo(toNode);
+    }
+
+    /**
+     * Returns the edge leading from one node to the other, or null if there is none.
+     * Undirected edges are found from both of their endpoints.
+     */
+    public Edge getEdge(Node<T> fromNode, Node<T> toNode) {
+        return fromNode.getEdgeTo(toNode);
+    }
+
+    /**
+     * Removes the edge leading from one node to the other. An undirected edge is removed
+     * from both endpoints.
+     * @return The removed edge, or null if there was none.
+     */
+    public Edge removeEdge(Node<T> fromNode, Node<T> toNode) {
+        Edge removed = fromNode.removeEdgeTo(toNode);
+        if (removed == null) {
+            return null;
+        }
+        if (removed instanceof UndirectedEdge && toNode != fromNode) {
+            toNode.removeEdge(removed);
+        }
+        componentsStale = true;
+        modifications++;
+        return removed;
+    }
+
+    /**
+     * Returns whether the two nodes lie in the same connected component. Edge directions are
+     * ignored, so this answers whether messages can travel between the nodes over some chain
+     * of links. Components are tracked incrementally as edges are added through this class.
+     */
+    public boolean connected(Node<T> node1, Node<T> node2) {
+        int index1 = indexOf(node1);
+        int index2 = indexOf(node2);
+        if (index1 < 0 || index2 < 0) {
+            return node1 == node2;
+        }
+        return getComponents().connected(index1, index2);
+    }
+
+    /**
+     * Returns the number of connected components, ignoring edge directions.
+     */
+    public int componentCount() {
+        return getComponents().componentCount();
+    }
+
+    /**
+     * Marks the tracked components as outdated, e.g. after edges were removed or created
+     * directly through the edge constructors. The next query rebuilds them in one pass.
+     */
+    public void invalidateComponents() {
+        componentsStale = true;
+    }
+
+    private void linked(Node<T> node1, Node<T> node2) {
+        addNode(node1);
+        addNode(node2);
+        modifications++;
+        if (components != null && !componentsStale) {
+            components.union(indices.get(node1), indices.get(node2));
+        }
+    }
+
+    /**
+     * Returns a counter that changes whenever nodes or edges are added or removed through
+     * this class, so that derived structures such as a {@link DistanceOracle} can tell
+     * whether they are outdated.
+     */
+    public int getModificationCount() {
+        return modifications;
+    }
+
+    private UnionFind getComponents() {
+        if (components == null) {
+            components = new UnionFind(nodes.size());
+            componentsStale = true;
+        }
+        if (componentsStale) {
+            components.reset(nodes.size());
+            for (int i = 0; i < nodes.size(); i++) {
+                Node<T> node = nodes.get(i);
+                for (Edge edge : node.getOutgoingEdges()) {
+                    int other = indexOf(edge.getOtherNode(node));
+                    if (other >= 0) {
+                        components.union(i, other);
+                    }
+                }
+            }
+            componentsStale = false;
+        }
+        return components;
     }
 
     public List<Node<T>> getNodes() {
@@ -39,14 +181,23 @@ public class Graph<T> {
         return nodes.size();
     }
 
+    /**
+     * Creates an immutable, int-indexed snapshot of the current nodes and edges.
+     */
+    public CsrGraph<T> freeze() {
+        return CsrGraph.fromGraph(this);
+    }
+
     public void printGraph() {
+        StringBuilder text = new StringBuilder();
         for (Node<?> node : nodes) {
-            System.out.print(node.getData() + ": ");
+            text.append(node.getData()).append(": ");
             for (Edge edge : node.getOutgoingEdges()) {
-                System.out.print(edge.toString() + " ");
+                text.append(edge).append(' ');
             }
-            System.out.println();
+            text.append(System.lineSeparator());
         }
+        System.out.print(text);
     }
 
     public static void main(String[] args) {
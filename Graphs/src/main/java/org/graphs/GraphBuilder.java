@@ -0,0 +1,326 @@
+package org.graphs;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicIntegerArray;
+import java.util.function.DoubleBinaryOperator;
+import java.util.stream.IntStream;
+
+/**
+ * Collects edges between int node ids in bulk and turns them into a {@link CsrGraph} or a
+ * {@link Graph} in one parallel pass.
+ *
+ * Batches may be added from several threads at once. Duplicate edges between the same pair
+ * of nodes are collapsed into one edge whose weight is the merge of all their weights, so
+ * the merge function should be associative and commutative. In undirected mode every edge
+ * is stored in the adjacency of both endpoints, and (a, b) and (b, a) count as duplicates.
+ */
+public class GraphBuilder<T> {
+
+    private static final int SLICE = 1 << 16;
+    private static final int PENDING_CAPACITY = 4096;
+
+    private final List<T> nodeData;
+    private final boolean undirected;
+    private final DoubleBinaryOperator merge;
+    private final List<Batch> batches;
+    private Batch pending;
+
+    /**
+     * Creates a builder for directed edges that keeps the smallest weight of duplicates.
+     * @param nodeData The data of the nodes, node ids are positions in this list.
+     */
+    public GraphBuilder(List<T> nodeData) {
+        this(nodeData, false, Math::min);
+    }
+
+    /**
+     * @param nodeData The data of the nodes, node ids are positions in this list.
+     * @param undirected Whether edges link both endpoints.
+     * @param merge Combines the weights of duplicate edges.
+     */
+    public GraphBuilder(List<T> nodeData, boolean undirected, DoubleBinaryOperator merge) {
+        this.nodeData = new ArrayList<>(nodeData);
+        this.undirected = undirected;
+        this.merge = merge;
+        this.batches = new ArrayList<>();
+    }
+
+    public int nodeCount() {
+        return nodeData.size();
+    }
+
+    public boolean isUndirected() {
+        return undirected;
+    }
+
+    public void addEdge(int from, int to, double weight) {
+        synchronized (batches) {
+            if (pending == null || pending.length == PENDING_CAPACITY) {
+                pending = new Batch(new int[PENDING_CAPACITY], new int[PENDING_CAPACITY], new double[PENDING_CAPACITY], 0);
+                batches.add(pending);
+            }
+            pending.from[pending.length] = from;
+            pending.to[pending.length] = to;
+            pending.weights[pending.length] = weight;
+            pending.length++;
+        }
+    }
+
+    /**
+     * Adds a batch of edges given as parallel arrays. The arrays are copied, so callers
+     * may reuse them for the next batch.
+     * @param from The source node ids.
+     * @param to The target node ids.
+     * @param weights The edge weights, or null for weight 0.
+     */
+    public void addEdges(int[] from, int[] to, double[] weights) {
+        addEdges(from, to, weights, 0, from.length);
+    }
+
+    public void addEdges(int[] from, int[] to, double[] weights, int offset, int length) {
+        if (to.length < offset + length || from.length < offset + length
+                || (weights != null && weights.length < offset + length)) {
+            throw new IllegalArgumentException("Edge arrays are shorter than offset + length (" + (offset + length) + ").");
+        }
+        Batch batch = new Batch(
+                Arrays.copyOfRange(from, offset, offset + length),
+                Arrays.copyOfRange(to, offset, offset + length),
+                weights == null ? new double[length] : Arrays.copyOfRange(weights, offset, offset + length),
+                length);
+        synchronized (batches) {
+            batches.add(batch);
+        }
+    }
+
+    /**
+     * Builds the CSR snapshot of all edges added so far. Targets of every node are sorted
+     * by id.
+     * @throws IllegalArgumentException if an edge refers to a node id outside the node list.
+     */
+    public CsrGraph<T> buildCsr() {
+        int n = nodeData.size();
+        List<Slice> slices = slices();
+
+        AtomicIntegerArray counts = new AtomicIntegerArray(n);
+        slices.parallelStream().forEach(slice -> {
+            for (int i = slice.from; i < slice.to; i++) {
+                int from = slice.batch.from[i];
+                int to = slice.batch.to[i];
+                if (from < 0 || from >= n || to < 0 || to >= n) {
+                    throw new IllegalArgumentException("Edge " + from + " -> " + to + " refers to a node outside 0.." + (n - 1) + ".");
+                }
+                counts.incrementAndGet(from);
+                if (undirected && from != to) {
+                    counts.incrementAndGet(to);
+                }
+            }
+        });
+
+        int[] offsets = new int[n + 1];
+        for (int i = 0; i < n; i++) {
+            offsets[i + 1] = counts.get(i);
+        }
+        Arrays.parallelPrefix(offsets, Integer::sum);
+
+        int[] targets = new int[offsets[n]];
+        double[] weights = new double[offsets[n]];
+        AtomicIntegerArray cursors = new AtomicIntegerArray(Arrays.copyOf(offsets, n));
+        slices.parallelStream().forEach(slice -> {
+            for (int i = slice.from; i < slice.to; i++) {
+                int from = slice.batch.from[i];
+                int to = slice.batch.to[i];
+                double weight = slice.batch.weights[i];
+                int position = cursors.getAndIncrement(from);
+                targets[position] = to;
+                weights[position] = weight;
+                if (undirected && from != to) {
+                    position = cursors.getAndIncrement(to);
+                    targets[position] = from;
+                    weights[position] = weight;
+                }
+            }
+        });
+
+        // Sort every adjacency segment and collapse duplicates in place
+        int[] degrees = new int[n + 1];
+        IntStream.range(0, n).parallel().forEach(v -> degrees[v + 1] = collapse(targets, weights, offsets[v], offsets[v + 1]));
+        Arrays.parallelPrefix(degrees, Integer::sum);
+
+        int[] compactTargets = new int[degrees[n]];
+        double[] compactWeights = new double[degrees[n]];
+        IntStream.range(0, n).parallel().forEach(v -> {
+            int length = degrees[v + 1] - degrees[v];
+            System.arraycopy(targets, offsets[v], compactTargets, degrees[v], length);
+            System.arraycopy(weights, offsets[v], compactWeights, degrees[v], length);
+        });
+        return new CsrGraph<>(degrees, compactTargets, compactWeights, new ArrayList<>(nodeData));
+    }
+
+    /**
+     * Builds a {@link Graph} of all edges added so far, with one {@link Node} per node id and
+     * {@link DirectedEdge}s or {@link UndirectedEdge}s depending on the mode. Edge objects
+     * are created in parallel, each node's edge list is filled by exactly one thread.
+     */
+    public Graph<T> buildGraph() {
+        return toGraph(buildCsr(), undirected);
+    }
+
+    /**
+     * Expands a CSR snapshot into a {@link Graph}. In undirected mode the adjacency of the
+     * snapshot must be symmetric, as produced by an undirected builder.
+     */
+    static <T> Graph<T> toGraph(CsrGraph<T> csr, boolean undirected) {
+        int n = csr.nodeCount();
+        @SuppressWarnings({"unchecked", "rawtypes"})
+        Node<T>[] nodes = new Node[n];
+        IntStream.range(0, n).parallel().forEach(v -> {
+            nodes[v] = new Node<>(csr.getData(v));
+            nodes[v].reserveEdges(csr.degree(v));
+        });
+
+        if (!undirected) {
+            IntStream.range(0, n).parallel().forEach(u -> {
+                for (int e = csr.edgeStart(u); e < csr.edgeEnd(u); e++) {
+                    new DirectedEdge(nodes[u], nodes[csr.target(e)], csr.weight(e));
+                }
+            });
+        } else {
+            // The lower endpoint owns the shared edge object, the other endpoint finds it
+            // through a binary search in the lower endpoint's sorted segment
+            Edge[] edges = new Edge[csr.edgeCount()];
+            IntStream.range(0, n).parallel().forEach(u -> {
+                for (int e = csr.edgeStart(u); e < csr.edgeEnd(u); e++) {
+                    int v = csr.target(e);
+                    if (v >= u) {
+                        edges[e] = new UndirectedEdge(nodes[u], nodes[v], csr.weight(e), false);
+                    }
+                }
+            });
+            IntStream.range(0, n).parallel().forEach(u -> {
+                for (int e = csr.edgeStart(u); e < csr.edgeEnd(u); e++) {
+                    int v = csr.target(e);
+                    Edge edge = edges[e];
+                    if (v < u) {
+                        int mirror = findSlot(csr, v, u);
+                        if (mirror < 0) {
+                            throw new IllegalArgumentException("Adjacency is not symmetric between " + u + " and " + v + ".");
+                        }
+                        edge = edges[mirror];
+                    }
+                    nodes[u].addOutgoingEdge(edge);
+                }
+            });
+        }
+
+        Graph<T> graph = new Graph<>();
+        for (Node<T> node : nodes) {
+            graph.addNode(node);
+        }
+        return graph;
+    }
+
+    private static int findSlot(CsrGraph<?> csr, int node, int target) {
+        int low = csr.edgeStart(node);
+        int high = csr.edgeEnd(node) - 1;
+        while (low <= high) {
+            int middle = (low + high) >>> 1;
+            int value = csr.target(middle);
+            if (value < target) {
+                low = middle + 1;
+            } else if (value > target) {
+                high = middle - 1;
+            } else {
+                return middle;
+            }
+        }
+        return -1;
+    }
+
+    private int collapse(int[] targets, double[] weights, int start, int end) {
+        sortSegment(targets, weights, start, end);
+        int write = start;
+        for (int read = start; read < end; read++) {
+            if (write > start && targets[write - 1] == targets[read]) {
+                weights[write - 1] = merge.applyAsDouble(weights[write - 1], weights[read]);
+            } else {
+                targets[write] = targets[read];
+                weights[write] = weights[read];
+                write++;
+            }
+        }
+        return write - start;
+    }
+
+    private static void sortSegment(int[] targets, double[] weights, int start, int end) {
+        int length = end - start;
+        if (length < 32) {
+            for (int i = start + 1; i < end; i++) {
+                int target = targets[i];
+                double weight = weights[i];
+                int j = i - 1;
+                while (j >= start && targets[j] > target) {
+                    targets[j + 1] = targets[j];
+                    weights[j + 1] = weights[j];
+                    j--;
+                }
+                targets[j + 1] = target;
+                weights[j + 1] = weight;
+            }
+            return;
+        }
+        // Pack target and original position into one long so that a primitive sort keeps
+        // the weights attached
+        long[] keys = new long[length];
+        for (int i = 0; i < length; i++) {
+            keys[i] = ((long) targets[start + i] << 32) | i;
+        }
+        Arrays.sort(keys);
+        double[] sortedWeights = new double[length];
+        for (int i = 0; i < length; i++) {
+            int original = (int) keys[i];
+            targets[start + i] = (int) (keys[i] >>> 32);
+            sortedWeights[i] = weights[start + original];
+        }
+        System.arraycopy(sortedWeights, 0, weights, start, length);
+    }
+
+    private List<Slice> slices() {
+        List<Slice> slices = new ArrayList<>();
+        synchronized (batches) {
+            for (Batch batch : batches) {
+                for (int start = 0; start < batch.length; start += SLICE) {
+                    slices.add(new Slice(batch, start, Math.min(batch.length, start + SLICE)));
+                }
+            }
+        }
+        return slices;
+    }
+
+    private static class Batch {
+        final int[] from;
+        final int[] to;
+        final double[] weights;
+        int length;
+
+        Batch(int[] from, int[] to, double[] weights, int length) {
+            this.from = from;
+            this.to = to;
+            this.weights = weights;
+            this.length = length;
+        }
+    }
+
+    private static class Slice {
+        final Batch batch;
+        final int from;
+        final int to;
+
+        Slice(Batch batch, int from, int to) {
+            this.batch = batch;
+            this.from = from;
+            this.to = to;
+        }
+    }
+}
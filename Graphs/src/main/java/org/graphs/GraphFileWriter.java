@@ -0,0 +1,157 @@
+package org.graphs;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.channels.FileChannel;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.List;
+
+/**
+ * Writes graphs in the binary layout read by {@link MappedGraph}.
+ *
+ * All values are little endian. The file starts with a 32 byte header (magic, version,
+ * node count n, edge count m and a reserved long), followed by n + 1 long edge offsets,
+ * m int targets, padding up to the next multiple of 8 and m double weights. Node ids are
+ * positions in {@link Graph#getNodes()}; node data is not stored.
+ */
+public final class GraphFileWriter {
+
+    static final int MAGIC = 0x53574752; // "SWGR"
+    static final int VERSION = 1;
+    static final int HEADER_BYTES = 32;
+
+    private static final int BUFFER_BYTES = 1 << 20;
+
+    private GraphFileWriter() {
+    }
+
+    /**
+     * Streams the adjacency of the graph to the file without building an intermediate
+     * snapshot. The node list is walked three times, once per section.
+     */
+    public static <T> void write(Graph<T> graph, Path path) throws IOException {
+        List<Node<T>> nodes = graph.getNodes();
+        long edgeCount = 0;
+        for (Node<T> node : nodes) {
+            edgeCount += node.getOutgoingEdges().size();
+        }
+
+        try (Output out = new Output(path)) {
+            out.header(nodes.size(), edgeCount);
+
+            long offset = 0;
+            out.putLong(offset);
+            for (Node<T> node : nodes) {
+                offset += node.getOutgoingEdges().size();
+                out.putLong(offset);
+            }
+            for (Node<T> node : nodes) {
+                for (Edge edge : node.getOutgoingEdges()) {
+                    int target = graph.indexOf(edge.getOtherNode(node));
+                    if (target < 0) {
+                        throw new IllegalArgumentException("Edge " + edge + " leads to a node that is not part of the graph.");
+                    }
+                    out.putInt(target);
+                }
+            }
+            out.pad(edgeCount);
+            for (Node<T> node : nodes) {
+                for (Edge edge : node.getOutgoingEdges()) {
+                    out.putDouble(edge.getWeight());
+                }
+            }
+        }
+    }
+
+    public static void write(CsrGraph<?> graph, Path path) throws IOException {
+        int n = graph.nodeCount();
+        try (Output out = new Output(path)) {
+            out.header(n, graph.edgeCount());
+            for (int v = 0; v <= n; v++) {
+                out.putLong(v < n ? graph.edgeStart(v) : graph.edgeCount());
+            }
+            for (int e = 0; e < graph.edgeCount(); e++) {
+                out.putInt(graph.target(e));
+            }
+            out.pad(graph.edgeCount());
+            for (int e = 0; e < graph.edgeCount(); e++) {
+                out.putDouble(graph.weight(e));
+            }
+        }
+    }
+
+    static long targetsPosition(long nodeCount) {
+        return HEADER_BYTES + 8 * (nodeCount + 1);
+    }
+
+    static long weightsPosition(long nodeCount, long edgeCount) {
+        long end = targetsPosition(nodeCount) + 4 * edgeCount;
+        return (end + 7) & ~7L;
+    }
+
+    private static class Output implements AutoCloseable {
+
+        private final FileChannel channel;
+        private final ByteBuffer buffer;
+
+        Output(Path path) throws IOException {
+            channel = FileChannel.open(path, StandardOpenOption.CREATE, StandardOpenOption.WRITE,
+                    StandardOpenOption.TRUNCATE_EXISTING);
+            buffer = ByteBuffer.allocateDirect(BUFFER_BYTES).order(ByteOrder.LITTLE_ENDIAN);
+        }
+
+        void header(long nodeCount, long edgeCount) throws IOException {
+            putInt(MAGIC);
+            putInt(VERSION);
+            putLong(nodeCount);
+            putLong(edgeCount);
+            putLong(0L);
+        }
+
+        void putInt(int value) throws IOException {
+            ensure(4);
+            buffer.putInt(value);
+        }
+
+        void putLong(long value) throws IOException {
+            ensure(8);
+            buffer.putLong(value);
+        }
+
+        void putDouble(double value) throws IOException {
+            ensure(8);
+            buffer.putDouble(value);
+        }
+
+        void pad(long edgeCount) throws IOException {
+            if ((edgeCount & 1) != 0) {
+                putInt(0);
+            }
+        }
+
+        private void ensure(int bytes) throws IOException {
+            if (buffer.remaining() < bytes) {
+                flush();
+            }
+        }
+
+        private void flush() throws IOException {
+            buffer.flip();
+            while (buffer.hasRemaining()) {
+                channel.write(buffer);
+            }
+            buffer.clear();
+        }
+
+        @Override
+        public void close() throws IOException {
+            try {
+                flush();
+            } finally {
+                channel.close();
+            }
+        }
+    }
+}
@@ -0,0 +1,635 @@
+package org.graphs;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.UncheckedIOException;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.BitSet;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.stream.Collectors;
+import javax.xml.stream.XMLInputFactory;
+import javax.xml.stream.XMLStreamConstants;
+import javax.xml.stream.XMLStreamException;
+import javax.xml.stream.XMLStreamReader;
+
+/**
+ * Reads and writes graphs as edge lists and GraphML.
+ *
+ * An edge list has one edge per line, given as the int ids of both endpoints and an optional
+ * weight, separated by spaces or tabs. Lines starting with '#' or '%' are comments. Node ids
+ * run from 0 to the largest id in the file, and the data of every node is its id. Large edge
+ * lists are split into byte ranges that end on a line break, parsed in parallel into
+ * primitive buffers and handed to a {@link GraphBuilder} in bulk, so duplicate edges collapse
+ * into one with the smaller weight.
+ *
+ * GraphML is parsed sequentially with StAX, since XML cannot be split at arbitrary byte
+ * positions. Writers stream through a buffered {@link FileChannel}.
+ */
+public final class GraphIO {
+
+    private static final int BUFFER_BYTES = 1 << 20;
+    private static final long MIN_CHUNK_BYTES = 1 << 20;
+    private static final long MAX_CHUNK_BYTES = 1 << 28;
+    // Powers of ten up to 10^22 are exact doubles
+    private static final double[] POWERS_OF_TEN = new double[23];
+
+    static {
+        POWERS_OF_TEN[0] = 1.0;
+        for (int i = 1; i < POWERS_OF_TEN.length; i++) {
+            POWERS_OF_TEN[i] = POWERS_OF_TEN[i - 1] * 10.0;
+        }
+    }
+
+    private GraphIO() {
+    }
+
+    public static Graph<Integer> readEdgeList(Path path, boolean undirected) throws IOException {
+        return GraphBuilder.toGraph(readEdgeListCsr(path, undirected), undirected);
+    }
+
+    /**
+     * Reads an edge list straight into a {@link CsrGraph}, skipping the object graph.
+     * @param undirected Whether every line links both endpoints.
+     * @throws IOException if the file cannot be read or a line is malformed.
+     */
+    public static CsrGraph<Integer> readEdgeListCsr(Path path, boolean undirected) throws IOException {
+        List<EdgeChunk> chunks;
+        try (FileChannel channel = FileChannel.open(path, StandardOpenOption.READ)) {
+            long[] bounds = chunkBounds(channel);
+            List<long[]> ranges = new ArrayList<>();
+            for (int i = 0; i + 1 < bounds.length; i++) {
+                if (bounds[i + 1] > bounds[i]) {
+                    ranges.add(new long[] {bounds[i], bounds[i + 1]});
+                }
+            }
+            chunks = ranges.parallelStream()
+                    .map(range -> parseChunk(channel, range[0], range[1]))
+                    .collect(Collectors.toList());
+        } catch (UncheckedIOException e) {
+            throw e.getCause();
+        }
+
+        int maxId = -1;
+        for (EdgeChunk chunk : chunks) {
+            maxId = Math.max(maxId, chunk.maxId);
+        }
+        List<Integer> ids = new ArrayList<>(maxId + 1);
+        for (int id = 0; id <= maxId; id++) {
+            ids.add(id);
+        }
+        GraphBuilder<Integer> builder = new GraphBuilder<>(ids, undirected, Math::min);
+        for (EdgeChunk chunk : chunks) {
+            builder.addEdges(chunk.from.toArray(), chunk.to.toArray(), chunk.weights, 0, chunk.from.size());
+        }
+        return builder.buildCsr();
+    }
+
+    /**
+     * Splits the file into ranges of roughly equal size, each ending right after a line break.
+     */
+    private static long[] chunkBounds(FileChannel channel) throws IOException {
+        long size = channel.size();
+        int parallelism = Runtime.getRuntime().availableProcessors();
+        long chunkBytes = Math.min(MAX_CHUNK_BYTES, Math.max(MIN_CHUNK_BYTES, size / (parallelism * 4L) + 1));
+        int count = (int) Math.max(1, (size + chunkBytes - 1) / chunkBytes);
+        long[] bounds = new long[count + 1];
+        bounds[count] = size;
+        ByteBuffer probe = ByteBuffer.allocate(4096);
+        for (int i = 1; i < count; i++) {
+            long position = Math.max(bounds[i - 1], i * chunkBytes);
+            bounds[i] = size;
+            search:
+            while (position < size) {
+                probe.clear();
+                int read = channel.read(probe, position);
+                if (read <= 0) {
+                    break;
+                }
+                for (int j = 0; j < read; j++) {
+                    if (probe.get(j) == '\n') {
+                        bounds[i] = position + j + 1;
+                        break search;
+                    }
+                }
+                position += read;
+            }
+        }
+        return bounds;
+    }
+
+    private static EdgeChunk parseChunk(FileChannel channel, long start, long end) {
+        MappedByteBuffer bytes;
+        try {
+            bytes = channel.map(FileChannel.MapMode.READ_ONLY, start, end - start);
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+        EdgeChunk chunk = new EdgeChunk(start, bytes);
+        chunk.parse();
+        return chunk;
+    }
+
+    /**
+     * Parsed edges of one byte range of an edge list.
+     */
+    private static class EdgeChunk {
+
+        final IntList from = new IntList();
+        final IntList to = new IntList();
+        double[] weights = new double[1024];
+        int maxId = -1;
+
+        private final long start;
+        private final ByteBuffer bytes;
+        private final int limit;
+        private int position;
+
+        EdgeChunk(long start, ByteBuffer bytes) {
+            this.start = start;
+            this.bytes = bytes;
+            this.limit = bytes.limit();
+        }
+
+        void parse() {
+            while (position < limit) {
+                skipBlanks();
+                if (position == limit) {
+                    break;
+                }
+                byte b = bytes.get(position);
+                if (b == '\n') {
+                    position++;
+                    continue;
+                }
+                if (b == '#' || b == '%') {
+                    skipLine();
+                    continue;
+                }
+                int source = parseId();
+                skipBlanks();
+                int target = parseId();
+                skipBlanks();
+                double weight = 0.0;
+                if (position < limit && bytes.get(position) != '\n') {
+                    weight = parseWeight();
+                }
+                skipLine();
+
+                if (from.size() == weights.length) {
+                    weights = Arrays.copyOf(weights, weights.length * 2);
+                }
+                weights[from.size()] = weight;
+                from.add(source);
+                to.add(target);
+                maxId = Math.max(maxId, Math.max(source, target));
+            }
+        }
+
+        private int parseId() {
+            int begin = position;
+            long value = 0;
+            while (position < limit) {
+                byte b = bytes.get(position);
+                if (b < '0' || b > '9') {
+                    break;
+                }
+                value = value * 10 + (b - '0');
+                if (value > Integer.MAX_VALUE - 1) {
+                    throw malformed(begin, "node id too large");
+                }
+                position++;
+            }
+            if (position == begin) {
+                throw malformed(begin, "expected a node id");
+            }
+            return (int) value;
+        }
+
+        /**
+         * Parses plain decimals exactly without allocating and hands anything else
+         * (exponents, long mantissas, NaN) to {@link Double#parseDouble}.
+         */
+        private double parseWeight() {
+            int begin = position;
+            while (position < limit && !isBlank(bytes.get(position)) && bytes.get(position) != '\n') {
+                position++;
+            }
+            int i = begin;
+            boolean negative = false;
+            if (bytes.get(i) == '-' || bytes.get(i) == '+') {
+                negative = bytes.get(i) == '-';
+                i++;
+            }
+            long mantissa = 0;
+            int digits = 0;
+            int scale = -1;
+            boolean simple = i < position;
+            for (; i < position && simple; i++) {
+                byte b = bytes.get(i);
+                if (b >= '0' && b <= '9') {
+                    mantissa = mantissa * 10 + (b - '0');
+                    digits++;
+                    if (scale >= 0) {
+                        scale++;
+                    }
+                } else if (b == '.' && scale < 0) {
+                    scale = 0;
+                } else {
+                    simple = false;
+                }
+            }
+            if (simple && digits > 0 && digits <= 15 && scale <= 22) {
+                double value = scale > 0 ? mantissa / POWERS_OF_TEN[scale] : mantissa;
+                return negative ? -value : value;
+            }
+            byte[] token = new byte[position - begin];
+            for (int j = 0; j < token.length; j++) {
+                token[j] = bytes.get(begin + j);
+            }
+            try {
+                return Double.parseDouble(new String(token, StandardCharsets.US_ASCII));
+            } catch (NumberFormatException e) {
+                throw malformed(begin, "expected a weight");
+            }
+        }
+
+        private void skipBlanks() {
+            while (position < limit && isBlank(bytes.get(position))) {
+                position++;
+            }
+        }
+
+        private void skipLine() {
+            while (position < limit && bytes.get(position++) != '\n') {
+                // Ignores any further columns
+            }
+        }
+
+        private static boolean isBlank(byte b) {
+            return b == ' ' || b == '\t' || b == '\r';
+        }
+
+        private UncheckedIOException malformed(int offset, String problem) {
+            return new UncheckedIOException(new IOException("Malformed edge list at byte " + (start + offset) + ": " + problem + "."));
+        }
+    }
+
+    /**
+     * Writes one line "from to weight" per edge, using the node positions in
+     * {@link Graph#getNodes()} as ids. Undirected edges are written once, so a graph mixing
+     * directed and undirected edges loses that distinction; use GraphML for those.
+     */
+    public static <T> void writeEdgeList(Graph<T> graph, Path path) throws IOException {
+        try (TextOutput out = new TextOutput(path)) {
+            List<Node<T>> nodes = graph.getNodes();
+            for (int i = 0; i < nodes.size(); i++) {
+                Node<T> node = nodes.get(i);
+                for (Edge edge : node.getOutgoingEdges()) {
+                    int target = targetOf(graph, node, edge);
+                    if (edge instanceof UndirectedEdge && target < i) {
+                        continue;
+                    }
+                    out.putInt(i);
+                    out.put(' ');
+                    out.putInt(target);
+                    out.put(' ');
+                    out.put(Double.toString(edge.getWeight()));
+                    out.put('\n');
+                }
+            }
+        }
+    }
+
+    public static void writeEdgeList(CsrGraph<?> graph, Path path) throws IOException {
+        try (TextOutput out = new TextOutput(path)) {
+            for (int v = 0; v < graph.nodeCount(); v++) {
+                for (int e = graph.edgeStart(v); e < graph.edgeEnd(v); e++) {
+                    out.putInt(v);
+                    out.put(' ');
+                    out.putInt(graph.target(e));
+                    out.put(' ');
+                    out.put(Double.toString(graph.weight(e)));
+                    out.put('\n');
+                }
+            }
+        }
+    }
+
+    /**
+     * Writes the graph as GraphML. Nodes get the ids "n0", "n1", ... and their data is
+     * stored as a "label" attribute; edge weights are stored as a "weight" attribute.
+     * Undirected edges are written once and marked with {@code directed="false"}.
+     */
+    public static <T> void writeGraphML(Graph<T> graph, Path path) throws IOException {
+        try (TextOutput out = new TextOutput(path)) {
+            out.put("<?xml version=\"1.0\" encoding=\"UTF-8\"?>\n");
+            out.put("<graphml xmlns=\"http://graphml.graphdrawing.org/xmlns\">\n");
+            out.put("  <key id=\"label\" for=\"node\" attr.name=\"label\" attr.type=\"string\"/>\n");
+            out.put("  <key id=\"weight\" for=\"edge\" attr.name=\"weight\" attr.type=\"double\"/>\n");
+            out.put("  <graph edgedefault=\"directed\">\n");
+            List<Node<T>> nodes = graph.getNodes();
+            for (int i = 0; i < nodes.size(); i++) {
+                out.put("    <node id=\"n");
+                out.putInt(i);
+                out.put("\"><data key=\"label\">");
+                out.put(escape(String.valueOf(nodes.get(i).getData())));
+                out.put("</data></node>\n");
+            }
+            for (int i = 0; i < nodes.size(); i++) {
+                Node<T> node = nodes.get(i);
+                for (Edge edge : node.getOutgoingEdges()) {
+                    int target = targetOf(graph, node, edge);
+                    boolean undirected = edge instanceof UndirectedEdge;
+                    if (undirected && target < i) {
+                        continue;
+                    }
+                    out.put("    <edge source=\"n");
+                    out.putInt(i);
+                    out.put("\" target=\"n");
+                    out.putInt(target);
+                    out.put(undirected ? "\" directed=\"false\">" : "\">");
+                    out.put("<data key=\"weight\">");
+                    out.put(Double.toString(edge.getWeight()));
+                    out.put("</data></edge>\n");
+                }
+            }
+            out.put("  </graph>\n");
+            out.put("</graphml>\n");
+        }
+    }
+
+    /**
+     * Reads the first graph of a GraphML file. The data of every node is its "label"
+     * attribute if present and its id otherwise. Edge weights are read from the edge
+     * attribute named "weight", missing weights default to the key's default or 0.
+     * @throws IOException if the file cannot be read or is not valid GraphML.
+     */
+    public static Graph<String> readGraphML(Path path) throws IOException {
+        List<String> data = new ArrayList<>();
+        Map<String, Integer> ids = new HashMap<>();
+        IntList from = new IntList();
+        IntList to = new IntList();
+        double[] weights = new double[1024];
+        BitSet flipped = new BitSet();
+        boolean undirectedDefault = false;
+        String labelKey = null;
+        String weightKey = null;
+        double defaultWeight = 0.0;
+
+        XMLInputFactory factory = XMLInputFactory.newFactory();
+        factory.setProperty(XMLInputFactory.SUPPORT_DTD, false);
+        try (InputStream in = Files.newInputStream(path)) {
+            XMLStreamReader reader = factory.createXMLStreamReader(in);
+            String currentKey = null;
+            int currentNode = -1;
+            boolean inEdge = false;
+            boolean inGraph = false;
+            while (reader.hasNext()) {
+                int event = reader.next();
+                if (event == XMLStreamConstants.START_ELEMENT) {
+                    switch (reader.getLocalName()) {
+                        case "key":
+                            currentKey = reader.getAttributeValue(null, "id");
+                            String name = reader.getAttributeValue(null, "attr.name");
+                            String domain = reader.getAttributeValue(null, "for");
+                            if ("weight".equalsIgnoreCase(name) && "edge".equals(domain)) {
+                                weightKey = currentKey;
+                            } else if ("label".equalsIgnoreCase(name) && "node".equals(domain)) {
+                                labelKey = currentKey;
+                            }
+                            break;
+                        case "default":
+                            if (currentKey != null && currentKey.equals(weightKey)) {
+                                defaultWeight = parseWeight(reader.getElementText(), reader);
+                            }
+                            break;
+                        case "graph":
+                            if (inGraph) {
+                                throw new IOException("Nested graphs are not supported in " + path + ".");
+                            }
+                            inGraph = true;
+                            undirectedDefault = "undirected".equals(reader.getAttributeValue(null, "edgedefault"));
+                            break;
+                        case "node":
+                            String id = reader.getAttributeValue(null, "id");
+                            currentNode = nodeId(id, ids, data, reader);
+                            break;
+                        case "edge":
+                            int edge = from.size();
+                            from.add(nodeId(reader.getAttributeValue(null, "source"), ids, data, reader));
+                            to.add(nodeId(reader.getAttributeValue(null, "target"), ids, data, reader));
+                            if (edge == weights.length) {
+                                weights = Arrays.copyOf(weights, weights.length * 2);
+                            }
+                            weights[edge] = defaultWeight;
+                            String directed = reader.getAttributeValue(null, "directed");
+                            if (directed != null && Boolean.parseBoolean(directed) == undirectedDefault) {
+                                flipped.set(edge);
+                            }
+                            inEdge = true;
+                            break;
+                        case "data":
+                            String key = reader.getAttributeValue(null, "key");
+                            String text = reader.getElementText();
+                            if (inEdge && key != null && key.equals(weightKey)) {
+                                weights[from.size() - 1] = parseWeight(text, reader);
+                            } else if (currentNode >= 0 && key != null && key.equals(labelKey)) {
+                                data.set(currentNode, text);
+                            }
+                            break;
+                        default:
+                            break;
+                    }
+                } else if (event == XMLStreamConstants.END_ELEMENT) {
+                    switch (reader.getLocalName()) {
+                        case "key":
+                            currentKey = null;
+                            break;
+                        case "node":
+                            currentNode = -1;
+                            break;
+                        case "edge":
+                            inEdge = false;
+                            break;
+                        default:
+                            break;
+                    }
+                    if (reader.getLocalName().equals("graph")) {
+                        break;
+                    }
+                }
+            }
+            reader.close();
+        } catch (XMLStreamException e) {
+            throw new IOException("Invalid GraphML in " + path + ": " + e.getMessage(), e);
+        }
+
+        if (flipped.isEmpty()) {
+            GraphBuilder<String> builder = new GraphBuilder<>(data, undirectedDefault, Math::min);
+            builder.addEdges(from.toArray(), to.toArray(), weights, 0, from.size());
+            return builder.buildGraph();
+        }
+        // Mixed edge kinds cannot share one builder, link them one by one instead
+        Graph<String> graph = new Graph<>();
+        List<Node<String>> nodes = new ArrayList<>(data.size());
+        for (String value : data) {
+            Node<String> node = new Node<>(value);
+            nodes.add(node);
+            graph.addNode(node);
+        }
+        for (int e = 0; e < from.size(); e++) {
+            boolean undirected = undirectedDefault != flipped.get(e);
+            if (undirected) {
+                graph.addUndirectedEdge(nodes.get(from.get(e)), nodes.get(to.get(e)), weights[e]);
+            } else {
+                graph.addDirectedEdge(nodes.get(from.get(e)), nodes.get(to.get(e)), weights[e]);
+            }
+        }
+        return graph;
+    }
+
+    private static int nodeId(String id, Map<String, Integer> ids, List<String> data, XMLStreamReader reader) throws IOException {
+        if (id == null) {
+            throw new IOException("Missing node id at line " + reader.getLocation().getLineNumber() + ".");
+        }
+        Integer existing = ids.get(id);
+        if (existing != null) {
+            return existing;
+        }
+        ids.put(id, data.size());
+        data.add(id);
+        return data.size() - 1;
+    }
+
+    private static double parseWeight(String text, XMLStreamReader reader) throws IOException {
+        try {
+            return Double.parseDouble(text.trim());
+        } catch (NumberFormatException e) {
+            throw new IOException("Invalid weight \"" + text + "\" at line " + reader.getLocation().getLineNumber() + ".");
+        }
+    }
+
+    private static <T> int targetOf(Graph<T> graph, Node<T> node, Edge edge) {
+        int target = graph.indexOf(edge.getOtherNode(node));
+        if (target < 0) {
+            throw new IllegalArgumentException("Edge " + edge + " leads to a node that is not part of the graph.");
+        }
+        return target;
+    }
+
+    private static String escape(String text) {
+        StringBuilder escaped = null;
+        for (int i = 0; i < text.length(); i++) {
+            char c = text.charAt(i);
+            String replacement;
+            switch (c) {
+                case '<': replacement = "&lt;"; break;
+                case '>': replacement = "&gt;"; break;
+                case '&': replacement = "&amp;"; break;
+                case '"': replacement = "&quot;"; break;
+                default: replacement = null;
+            }
+            if (replacement != null && escaped == null) {
+                escaped = new StringBuilder(text.length() + 16).append(text, 0, i);
+            }
+            if (escaped != null) {
+                if (replacement != null) {
+                    escaped.append(replacement);
+                } else {
+                    escaped.append(c);
+                }
+            }
+        }
+        return escaped == null ? text : escaped.toString();
+    }
+
+    /**
+     * Buffered text output over a {@link FileChannel}. Ints are formatted straight into the
+     * buffer, everything else is encoded as UTF-8.
+     */
+    private static class TextOutput implements AutoCloseable {
+
+        private final FileChannel channel;
+        private final ByteBuffer buffer;
+
+        TextOutput(Path path) throws IOException {
+            channel = FileChannel.open(path, StandardOpenOption.CREATE, StandardOpenOption.WRITE,
+                    StandardOpenOption.TRUNCATE_EXISTING);
+            buffer = ByteBuffer.allocateDirect(BUFFER_BYTES);
+        }
+
+        void put(char c) throws IOException {
+            ensure(1);
+            buffer.put((byte) c);
+        }
+
+        void put(String text) throws IOException {
+            byte[] bytes = text.getBytes(StandardCharsets.UTF_8);
+            if (bytes.length > buffer.capacity()) {
+                flush();
+                ByteBuffer wrapped = ByteBuffer.wrap(bytes);
+                while (wrapped.hasRemaining()) {
+                    channel.write(wrapped);
+                }
+                return;
+            }
+            ensure(bytes.length);
+            buffer.put(bytes);
+        }
+
+        void putInt(int value) throws IOException {
+            ensure(11);
+            if (value < 0) {
+                if (value == Integer.MIN_VALUE) {
+                    put(Integer.toString(value));
+                    return;
+                }
+                buffer.put((byte) '-');
+                value = -value;
+            }
+            int digits = 1;
+            for (int rest = value / 10; rest > 0; rest /= 10) {
+                digits++;
+            }
+            int end = buffer.position() + digits;
+            for (int i = end - 1; i >= buffer.position(); i--) {
+                buffer.put(i, (byte) ('0' + value % 10));
+                value /= 10;
+            }
+            buffer.position(end);
+        }
+
+        private void ensure(int bytes) throws IOException {
+            if (buffer.remaining() < bytes) {
+                flush();
+            }
+        }
+
+        private void flush() throws IOException {
+            buffer.flip();
+            while (buffer.hasRemaining()) {
+                channel.write(buffer);
+            }
+            buffer.clear();
+        }
+
+        @Override
+        public void close() throws IOException {
+            try {
+                flush();
+            } finally {
+                channel.close();
+            }
+        }
+    }
+}
@@ -0,0 +1,113 @@
+package org.graphs;
+
+/**
+ * Assignment of the nodes of a {@link CsrGraph} to k parts, produced by {@link GraphPartitioner}.
+ * Node ids match the partitioned graph. Boundary and ghost queries treat edges as undirected.
+ */
+public class GraphPartition {
+
+    private final CsrGraph<?> graph;
+    private final int[] parts;
+    private final int partCount;
+
+    GraphPartition(CsrGraph<?> graph, int[] parts, int partCount) {
+        this.graph = graph;
+        this.parts = parts;
+        this.partCount = partCount;
+    }
+
+    public int getPartCount() {
+        return partCount;
+    }
+
+    public int getPart(int node) {
+        return parts[node];
+    }
+
+    /**
+     * Returns the part of every node. The array is shared, not copied.
+     */
+    public int[] getParts() {
+        return parts;
+    }
+
+    public int getPartSize(int part) {
+        int size = 0;
+        for (int p : parts) {
+            if (p == part) {
+                size++;
+            }
+        }
+        return size;
+    }
+
+    public int[] getNodes(int part) {
+        IntList nodes = new IntList();
+        for (int v = 0; v < parts.length; v++) {
+            if (parts[v] == part) {
+                nodes.add(v);
+            }
+        }
+        return nodes.toArray();
+    }
+
+    /**
+     * Returns the nodes of the part that have at least one neighbor in another part.
+     */
+    public int[] getBoundaryNodes(int part) {
+        IntList nodes = new IntList();
+        for (int v = 0; v < parts.length; v++) {
+            if (parts[v] != part) {
+                continue;
+            }
+            for (int e = graph.edgeStart(v); e < graph.edgeEnd(v); e++) {
+                if (parts[graph.target(e)] != part) {
+                    nodes.add(v);
+                    break;
+                }
+            }
+        }
+        return nodes.toArray();
+    }
+
+    /**
+     * Returns the nodes of other parts that are adjacent to the part, i.e. the ghost copies a
+     * worker owning the part needs to read.
+     */
+    public int[] getGhostNodes(int part) {
+        IntList nodes = new IntList();
+        for (int v = 0; v < parts.length; v++) {
+            if (parts[v] == part) {
+                continue;
+            }
+            for (int e = graph.edgeStart(v); e < graph.edgeEnd(v); e++) {
+                if (parts[graph.target(e)] == part) {
+                    nodes.add(v);
+                    break;
+                }
+            }
+        }
+        return nodes.toArray();
+    }
+
+    /**
+     * Returns the number of undirected edges whose endpoints lie in different parts.
+     */
+    public int getEdgeCut() {
+        int cut = 0;
+        for (int v = 0; v < parts.length; v++) {
+            for (int e = graph.edgeStart(v); e < graph.edgeEnd(v); e++) {
+                int u = graph.target(e);
+                if (u > v && parts[u] != parts[v]) {
+                    cut++;
+                }
+            }
+        }
+        return cut;
+    }
+
+    @Override
+    public String toString() {
+        return "GraphPartition[parts: " + partCount + ", edge cut: " + getEdgeCut() + "]";
+    }
+}
@@ -0,0 +1,373 @@
+package org.graphs;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Random;
+
+/**
+ * Multilevel k-way graph partitioner.
+ *
+ * The graph is coarsened by repeatedly contracting a heavy-edge matching until only a few
+ * nodes per part remain. The coarsest graph is split by growing k regions breadth-first from
+ * random seeds (the best of several attempts is kept), and the split is projected back level
+ * by level, each time refined by greedy boundary moves that reduce the number of cut edges
+ * without exceeding the allowed part weight. Edge weights of the input are ignored: every
+ * link counts as one, so the cut is the number of links crossing between parts.
+ */
+public final class GraphPartitioner {
+
+    /** Default allowed imbalance: parts may hold up to 3% more than the average. */
+    public static final double DEFAULT_IMBALANCE = 0.03;
+
+    private static final int NODES_PER_PART = 20;
+    private static final int INITIAL_ATTEMPTS = 4;
+    private static final int REFINEMENT_PASSES = 8;
+
+    private GraphPartitioner() {
+    }
+
+    public static <T> GraphPartition partition(Graph<T> graph, int parts) {
+        return partition(graph.freeze(), parts);
+    }
+
+    public static GraphPartition partition(CsrGraph<?> graph, int parts) {
+        return partition(graph, parts, DEFAULT_IMBALANCE, 1L);
+    }
+
+    /**
+     * @param graph The graph to split, edge directions are ignored.
+     * @param parts The number of parts k.
+     * @param imbalance How much heavier than the average a part may become, e.g. 0.03.
+     * @param seed Seed for matching order and region seeds, equal seeds give equal results.
+     * @return The part of every node.
+     */
+    public static GraphPartition partition(CsrGraph<?> graph, int parts, double imbalance, long seed) {
+        if (parts < 1) {
+            throw new IllegalArgumentException("The number of parts must be at least 1 but was " + parts + ".");
+        }
+        CsrGraph<?> undirected = graph.toUndirected();
+        int n = undirected.nodeCount();
+        if (parts == 1 || n <= parts) {
+            int[] assignment = new int[n];
+            for (int v = 0; v < n; v++) {
+                assignment[v] = v % parts;
+            }
+            return new GraphPartition(undirected, assignment, parts);
+        }
+
+        Random random = new Random(seed);
+        List<Level> levels = new ArrayList<>();
+        levels.add(Level.of(undirected));
+        int coarsestSize = Math.max(parts * NODES_PER_PART, 64);
+        while (true) {
+            Level current = levels.get(levels.size() - 1);
+            if (current.n <= coarsestSize) {
+                break;
+            }
+            Level coarser = current.coarsen(random);
+            if (coarser.n > current.n * 0.95) {
+                break;
+            }
+            levels.add(coarser);
+        }
+
+        Level coarsest = levels.get(levels.size() - 1);
+        double maxWeight = (1.0 + imbalance) * Math.ceil((double) coarsest.totalWeight() / parts);
+        int[] assignment = null;
+        int bestCut = Integer.MAX_VALUE;
+        for (int attempt = 0; attempt < INITIAL_ATTEMPTS; attempt++) {
+            int[] candidate = coarsest.growRegions(parts, random);
+            coarsest.refine(candidate, parts, maxWeight);
+            int cut = coarsest.cut(candidate);
+            if (cut < bestCut) {
+                bestCut = cut;
+                assignment = candidate;
+            }
+        }
+
+        for (int i = levels.size() - 1; i > 0; i--) {
+            Level coarse = levels.get(i);
+            Level fine = levels.get(i - 1);
+            int[] projected = new int[fine.n];
+            for (int v = 0; v < fine.n; v++) {
+                projected[v] = assignment[coarse.fineToCoarse[v]];
+            }
+            fine.refine(projected, parts, maxWeight);
+            assignment = projected;
+        }
+        return new GraphPartition(undirected, assignment, parts);
+    }
+
+    /**
+     * One level of the coarsening hierarchy with node weights (number of original nodes)
+     * and edge weights (number of original links).
+     */
+    private static final class Level {
+
+        final int n;
+        final int[] offsets;
+        final int[] adjacency;
+        final int[] edgeWeights;
+        final int[] nodeWeights;
+        // Maps the nodes of the next finer level to the nodes of this level
+        int[] fineToCoarse;
+
+        Level(int n, int[] offsets, int[] adjacency, int[] edgeWeights, int[] nodeWeights) {
+            this.n = n;
+            this.offsets = offsets;
+            this.adjacency = adjacency;
+            this.edgeWeights = edgeWeights;
+            this.nodeWeights = nodeWeights;
+        }
+
+        static Level of(CsrGraph<?> graph) {
+            int n = graph.nodeCount();
+            int[] offsets = new int[n + 1];
+            IntList adjacency = new IntList(graph.edgeCount());
+            for (int v = 0; v < n; v++) {
+                for (int e = graph.edgeStart(v); e < graph.edgeEnd(v); e++) {
+                    if (graph.target(e) != v) {
+                        adjacency.add(graph.target(e));
+                    }
+                }
+                offsets[v + 1] = adjacency.size();
+            }
+            int[] edgeWeights = new int[adjacency.size()];
+            Arrays.fill(edgeWeights, 1);
+            int[] nodeWeights = new int[n];
+            Arrays.fill(nodeWeights, 1);
+            return new Level(n, offsets, adjacency.toArray(), edgeWeights, nodeWeights);
+        }
+
+        long totalWeight() {
+            long total = 0;
+            for (int weight : nodeWeights) {
+                total += weight;
+            }
+            return total;
+        }
+
+        Level coarsen(Random random) {
+            int[] match = new int[n];
+            Arrays.fill(match, -1);
+            for (int v : shuffled(n, random)) {
+                if (match[v] >= 0) {
+                    continue;
+                }
+                int best = -1;
+                int bestWeight = 0;
+                for (int e = offsets[v]; e < offsets[v + 1]; e++) {
+                    int u = adjacency[e];
+                    if (match[u] < 0 && u != v && edgeWeights[e] > bestWeight) {
+                        best = u;
+                        bestWeight = edgeWeights[e];
+                    }
+                }
+                if (best >= 0) {
+                    match[v] = best;
+                    match[best] = v;
+                } else {
+                    match[v] = v;
+                }
+            }
+
+            int[] coarseOf = new int[n];
+            Arrays.fill(coarseOf, -1);
+            int count = 0;
+            for (int v = 0; v < n; v++) {
+                if (coarseOf[v] < 0) {
+                    coarseOf[v] = count;
+                    coarseOf[match[v]] = count;
+                    count++;
+                }
+            }
+
+            int[] coarseOffsets = new int[count + 1];
+            int[] coarseAdjacency = new int[adjacency.length];
+            int[] coarseEdgeWeights = new int[adjacency.length];
+            int[] coarseNodeWeights = new int[count];
+            int[] position = new int[count];
+            Arrays.fill(position, -1);
+            int size = 0;
+            for (int v = 0; v < n; v++) {
+                int partner = match[v];
+                if (partner < v) {
+                    continue;
+                }
+                int c = coarseOf[v];
+                int start = size;
+                coarseNodeWeights[c] = nodeWeights[v] + (partner != v ? nodeWeights[partner] : 0);
+                for (int member = v; ; member = partner) {
+                    for (int e = offsets[member]; e < offsets[member + 1]; e++) {
+                        int target = coarseOf[adjacency[e]];
+                        if (target == c) {
+                            continue;
+                        }
+                        if (position[target] >= start) {
+                            coarseEdgeWeights[position[target]] += edgeWeights[e];
+                        } else {
+                            position[target] = size;
+                            coarseAdjacency[size] = target;
+                            coarseEdgeWeights[size] = edgeWeights[e];
+                            size++;
+                        }
+                    }
+                    if (member == partner) {
+                        break;
+                    }
+                }
+                coarseOffsets[c + 1] = size;
+            }
+
+            Level coarse = new Level(count, coarseOffsets, Arrays.copyOf(coarseAdjacency, size),
+                    Arrays.copyOf(coarseEdgeWeights, size), coarseNodeWeights);
+            coarse.fineToCoarse = coarseOf;
+            return coarse;
+        }
+
+        int[] growRegions(int parts, Random random) {
+            int[] assignment = new int[n];
+            Arrays.fill(assignment, -1);
+            double target = (double) totalWeight() / parts;
+            int[] order = shuffled(n, random);
+            int next = 0;
+            int[] queue = new int[n];
+
+            for (int part = 0; part < parts - 1; part++) {
+                long weight = 0;
+                int head = 0;
+                int tail = 0;
+                while (weight < target) {
+                    if (head == tail) {
+                        while (next < n && assignment[order[next]] >= 0) {
+                            next++;
+                        }
+                        if (next == n) {
+                            break;
+                        }
+                        int seed = order[next];
+                        assignment[seed] = part;
+                        weight += nodeWeights[seed];
+                        queue[tail++] = seed;
+                        continue;
+                    }
+                    int u = queue[head++];
+                    for (int e = offsets[u]; e < offsets[u + 1] && weight < target; e++) {
+                        int v = adjacency[e];
+                        if (assignment[v] < 0) {
+                            assignment[v] = part;
+                            weight += nodeWeights[v];
+                            queue[tail++] = v;
+                        }
+                    }
+                }
+            }
+            for (int v = 0; v < n; v++) {
+                if (assignment[v] < 0) {
+                    assignment[v] = parts - 1;
+                }
+            }
+            return assignment;
+        }
+
+        void refine(int[] assignment, int parts, double maxWeight) {
+            long[] partWeights = new long[parts];
+            for (int v = 0; v < n; v++) {
+                partWeights[assignment[v]] += nodeWeights[v];
+            }
+            long[] connection = new long[parts];
+            int[] touched = new int[parts];
+
+            for (int pass = 0; pass < REFINEMENT_PASSES; pass++) {
+                int moves = 0;
+                for (int v = 0; v < n; v++) {
+                    int own = assignment[v];
+                    int touchedCount = 0;
+                    for (int e = offsets[v]; e < offsets[v + 1]; e++) {
+                        int part = assignment[adjacency[e]];
+                        if (connection[part] == 0) {
+                            touched[touchedCount++] = part;
+                        }
+                        connection[part] += edgeWeights[e];
+                    }
+
+                    int best = -1;
+                    long bestGain = Long.MIN_VALUE;
+                    for (int i = 0; i < touchedCount; i++) {
+                        int part = touched[i];
+                        if (part == own || partWeights[part] + nodeWeights[v] > maxWeight) {
+                            continue;
+                        }
+                        long gain = connection[part] - connection[own];
+                        if (gain > bestGain || (gain == bestGain && partWeights[part] < partWeights[best])) {
+                            best = part;
+                            bestGain = gain;
+                        }
+                    }
+                    boolean overweight = partWeights[own] > maxWeight;
+                    if (best >= 0 && (bestGain > 0 || overweight
+                            || (bestGain == 0 && partWeights[best] + nodeWeights[v] < partWeights[own]))) {
+                        assignment[v] = best;
+                        partWeights[own] -= nodeWeights[v];
+                        partWeights[best] += nodeWeights[v];
+                        moves++;
+                    }
+
+                    for (int i = 0; i < touchedCount; i++) {
+                        connection[touched[i]] = 0;
+                    }
+                }
+                if (moves == 0) {
+                    break;
+                }
+            }
+
+            // Parts that are still too heavy give away nodes to the lightest part,
+            // which also covers nodes without any neighbor
+            for (int v = 0; v < n; v++) {
+                int own = assignment[v];
+                if (partWeights[own] <= maxWeight) {
+                    continue;
+                }
+                int lightest = 0;
+                for (int part = 1; part < parts; part++) {
+                    if (partWeights[part] < partWeights[lightest]) {
+                        lightest = part;
+                    }
+                }
+                if (lightest != own && partWeights[lightest] + nodeWeights[v] <= maxWeight) {
+                    assignment[v] = lightest;
+                    partWeights[own] -= nodeWeights[v];
+                    partWeights[lightest] += nodeWeights[v];
+                }
+            }
+        }
+
+        int cut(int[] assignment) {
+            int cut = 0;
+            for (int v = 0; v < n; v++) {
+                for (int e = offsets[v]; e < offsets[v + 1]; e++) {
+                    if (assignment[adjacency[e]] != assignment[v]) {
+                        cut += edgeWeights[e];
+                    }
+                }
+            }
+            return cut / 2;
+        }
+
+        private static int[] shuffled(int n, Random random) {
+            int[] order = new int[n];
+            for (int i = 0; i < n; i++) {
+                order[i] = i;
+            }
+            for (int i = n - 1; i > 0; i--) {
+                int j = random.nextInt(i + 1);
+                int swap = order[i];
+                order[i] = order[j];
+                order[j] = swap;
+            }
+            return order;
+        }
+    }
+}
@@ -0,0 +1,102 @@
+package org.graphs;
+
+import java.util.Arrays;
+
+/**
+ * Binary min-heap over the ints 0..capacity-1 keyed by doubles, with decrease-key.
+ * All state lives in three primitive arrays, so pushes and pops do not allocate.
+ */
+class IndexedMinHeap {
+
+    private final int[] heap;
+    private final int[] positions;
+    private final double[] keys;
+    private int size;
+
+    IndexedMinHeap(int capacity) {
+        heap = new int[capacity];
+        positions = new int[capacity];
+        keys = new double[capacity];
+        Arrays.fill(positions, -1);
+    }
+
+    boolean isEmpty() {
+        return size == 0;
+    }
+
+    boolean contains(int item) {
+        return positions[item] >= 0;
+    }
+
+    /**
+     * Inserts the item, or lowers its key if it is already queued with a larger one.
+     */
+    void insertOrDecrease(int item, double key) {
+        int position = positions[item];
+        if (position < 0) {
+            position = size++;
+            heap[position] = item;
+            positions[item] = position;
+        } else if (key >= keys[item]) {
+            return;
+        }
+        keys[item] = key;
+        siftUp(position);
+    }
+
+    double peekKey() {
+        return keys[heap[0]];
+    }
+
+    int poll() {
+        int top = heap[0];
+        positions[top] = -1;
+        size--;
+        if (size > 0) {
+            int last = heap[size];
+            heap[0] = last;
+            positions[last] = 0;
+            siftDown(0);
+        }
+        return top;
+    }
+
+    private void siftUp(int position) {
+        int item = heap[position];
+        double key = keys[item];
+        while (position > 0) {
+            int parent = (position - 1) >>> 1;
+            int parentItem = heap[parent];
+            if (keys[parentItem] <= key) {
+                break;
+            }
+            heap[position] = parentItem;
+            positions[parentItem] = position;
+            position = parent;
+        }
+        heap[position] = item;
+        positions[item] = position;
+    }
+
+    private void siftDown(int position) {
+        int item = heap[position];
+        double key = keys[item];
+        int half = size >>> 1;
+        while (position < half) {
+            int child = 2 * position + 1;
+            int right = child + 1;
+            if (right < size && keys[heap[right]] < keys[heap[child]]) {
+                child = right;
+            }
+            int childItem = heap[child];
+            if (key <= keys[childItem]) {
+                break;
+            }
+            heap[position] = childItem;
+            positions[childItem] = position;
+            position = child;
+        }
+        heap[position] = item;
+        positions[item] = position;
+    }
+}
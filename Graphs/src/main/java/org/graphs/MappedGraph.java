@@ -0,0 +1,120 @@
+package org.graphs;
+
+import java.io.IOException;
+import java.nio.ByteOrder;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+
+/**
+ * Read-only graph backed by a memory-mapped file written by {@link GraphFileWriter}.
+ *
+ * The adjacency is never copied to the heap: offsets, targets and weights are read straight
+ * from the mapped pages, so opening a graph costs only the mapping itself and the operating
+ * system pages the file in as traversals touch it. Edge slots are longs because a mapped
+ * graph may hold more than 2^31 edges. The mapping stays valid until the instance is
+ * garbage collected.
+ */
+public class MappedGraph {
+
+    // Pages are a multiple of 8 bytes and every section is 4 or 8 byte aligned,
+    // so no value ever straddles two pages
+    private static final int PAGE_SHIFT = 30;
+    private static final long PAGE_MASK = (1L << PAGE_SHIFT) - 1;
+
+    private final MappedByteBuffer[] pages;
+    private final int nodeCount;
+    private final long edgeCount;
+    private final long targetsPosition;
+    private final long weightsPosition;
+
+    private MappedGraph(MappedByteBuffer[] pages, int nodeCount, long edgeCount) {
+        this.pages = pages;
+        this.nodeCount = nodeCount;
+        this.edgeCount = edgeCount;
+        this.targetsPosition = GraphFileWriter.targetsPosition(nodeCount);
+        this.weightsPosition = GraphFileWriter.weightsPosition(nodeCount, edgeCount);
+    }
+
+    /**
+     * Maps a graph file.
+     * @throws IOException if the file cannot be read or is not a valid graph file.
+     */
+    public static MappedGraph open(Path path) throws IOException {
+        try (FileChannel channel = FileChannel.open(path, StandardOpenOption.READ)) {
+            long size = channel.size();
+            if (size < GraphFileWriter.HEADER_BYTES) {
+                throw new IOException("File " + path + " is too short to be a graph file.");
+            }
+            int pageCount = (int) ((size + PAGE_MASK) >>> PAGE_SHIFT);
+            MappedByteBuffer[] pages = new MappedByteBuffer[pageCount];
+            for (int i = 0; i < pageCount; i++) {
+                long start = (long) i << PAGE_SHIFT;
+                pages[i] = channel.map(FileChannel.MapMode.READ_ONLY, start, Math.min(PAGE_MASK + 1, size - start));
+                pages[i].order(ByteOrder.LITTLE_ENDIAN);
+            }
+
+            MappedByteBuffer header = pages[0];
+            if (header.getInt(0) != GraphFileWriter.MAGIC) {
+                throw new IOException("File " + path + " is not a graph file.");
+            }
+            if (header.getInt(4) != GraphFileWriter.VERSION) {
+                throw new IOException("Unsupported graph file version " + header.getInt(4) + " in " + path + ".");
+            }
+            long nodes = header.getLong(8);
+            long edges = header.getLong(16);
+            if (nodes < 0 || nodes >= Integer.MAX_VALUE || edges < 0
+                    || GraphFileWriter.weightsPosition(nodes, edges) + 8 * edges != size) {
+                throw new IOException("Graph file " + path + " is truncated or corrupt.");
+            }
+            return new MappedGraph(pages, (int) nodes, edges);
+        }
+    }
+
+    public int nodeCount() {
+        return nodeCount;
+    }
+
+    public long edgeCount() {
+        return edgeCount;
+    }
+
+    public long edgeStart(int node) {
+        return getLong(GraphFileWriter.HEADER_BYTES + 8L * node);
+    }
+
+    public long edgeEnd(int node) {
+        return getLong(GraphFileWriter.HEADER_BYTES + 8L * (node + 1));
+    }
+
+    public int degree(int node) {
+        return (int) (edgeEnd(node) - edgeStart(node));
+    }
+
+    public int target(long edge) {
+        long position = targetsPosition + 4 * edge;
+        return pages[(int) (position >>> PAGE_SHIFT)].getInt((int) (position & PAGE_MASK));
+    }
+
+    public double weight(long edge) {
+        long position = weightsPosition + 8 * edge;
+        return pages[(int) (position >>> PAGE_SHIFT)].getDouble((int) (position & PAGE_MASK));
+    }
+
+    public void forEachNeighbor(int node, CsrGraph.NeighborVisitor visitor) {
+        long end = edgeEnd(node);
+        for (long e = edgeStart(node); e < end; e++) {
+            visitor.visit(target(e), weight(e));
+        }
+    }
+
+    private long getLong(long position) {
+        return pages[(int) (position >>> PAGE_SHIFT)].getLong((int) (position & PAGE_MASK));
+    }
+
+    @Override
+    public String toString() {
+        return "MappedGraph[nodes: " + nodeCount + ", edges: " + edgeCount + "]";
+    }
+}
@@ -1,12 +1,16 @@
 package org.graphs;
 
 import java.util.List;
+import java.util.Map;
 import java.util.ArrayList;
+import java.util.HashMap;
 
 public class Node<T> {
     
     private T data;
     private List<Edge> outgoingEdges;
+    // Neighbor -> position in outgoingEdges, only present in indexed mode
+    private Map<Node<?>, Integer> edgeIndex;
 
     public Node(T data) {
         this.data = data;
@@ -22,6 +26,130 @@ public class Node<T> {
     }
 
     public void addOutgoingEdge(Edge edge) {
-        outgoingEdges.add(edge);
+        if (edgeIndex == null) {
+            outgoingEdges.add(edge);
+            return;
+        }
+        Node<?> neighbor = edge.getOtherNode(this);
+        Integer position = edgeIndex.get(neighbor);
+        if (position == null) {
+            edgeIndex.put(neighbor, outgoingEdges.size());
+            outgoingEdges.add(edge);
+            return;
+        }
+        Edge replaced = outgoingEdges.set(position, edge);
+        if (replaced != edge && replaced instanceof UndirectedEdge && neighbor != this) {
+            neighbor.removeEdge(replaced);
+        }
+    }
+
+    /**
+     * Switches the node to indexed adjacency: a hash index from neighbor to edge position is
+     * kept next to the edge list, making {@link #getEdgeTo}, {@link #hasEdgeTo} and
+     * {@link #removeEdgeTo} O(1) expected time. An indexed node keeps at most one edge per
+     * neighbor, adding another edge to the same neighbor replaces the existing one, and
+     * removals move the last edge of the list into the freed position. Existing duplicate
+     * edges are collapsed to the last one when the index is enabled.
+     * The edge list must not be modified directly while the index is enabled.
+     */
+    public void enableIndex() {
+        if (edgeIndex != null) {
+            return;
+        }
+        List<Edge> edges = new ArrayList<>(outgoingEdges);
+        outgoingEdges.clear();
+        edgeIndex = new HashMap<>();
+        for (Edge edge : edges) {
+            Node<?> neighbor = edge.getOtherNode(this);
+            Integer position = edgeIndex.get(neighbor);
+            if (position == null) {
+                edgeIndex.put(neighbor, outgoingEdges.size());
+                outgoingEdges.add(edge);
+            } else {
+                outgoingEdges.set(position, edge);
+            }
+        }
+    }
+
+    public boolean isIndexed() {
+        return edgeIndex != null;
+    }
+
+    /**
+     * Returns an edge of this node leading to the neighbor, or null if there is none.
+     */
+    public Edge getEdgeTo(Node<?> neighbor) {
+        if (edgeIndex != null) {
+            Integer position = edgeIndex.get(neighbor);
+            return position == null ? null : outgoingEdges.get(position);
+        }
+        for (Edge edge : outgoingEdges) {
+            if (edge.getOtherNode(this) == neighbor) {
+                return edge;
+            }
+        }
+        return null;
+    }
+
+    public boolean hasEdgeTo(Node<?> neighbor) {
+        return getEdgeTo(neighbor) != null;
+    }
+
+    /**
+     * Removes an edge of this node leading to the neighbor from this node's list only.
+     * @return The removed edge, or null if there was none.
+     */
+    public Edge removeEdgeTo(Node<?> neighbor) {
+        if (edgeIndex == null) {
+            for (int i = 0; i < outgoingEdges.size(); i++) {
+                if (outgoingEdges.get(i).getOtherNode(this) == neighbor) {
+                    return outgoingEdges.remove(i);
+                }
+            }
+            return null;
+        }
+        Integer position = edgeIndex.remove(neighbor);
+        if (position == null) {
+            return null;
+        }
+        int last = outgoingEdges.size() - 1;
+        Edge removed = outgoingEdges.get(position);
+        if (position != last) {
+            Edge moved = outgoingEdges.get(last);
+            outgoingEdges.set(position, moved);
+            edgeIndex.put(moved.getOtherNode(this), position);
+        }
+        outgoingEdges.remove(last);
+        return removed;
+    }
+
+    /**
+     * Removes exactly the given edge from this node's list only, even if other edges lead to
+     * the same neighbor.
+     * @return Whether the edge was part of the list.
+     */
+    public boolean removeEdge(Edge edge) {
+        if (edgeIndex == null) {
+            for (int i = 0; i < outgoingEdges.size(); i++) {
+                if (outgoingEdges.get(i) == edge) {
+                    outgoingEdges.remove(i);
+                    return true;
+                }
+            }
+            return false;
+        }
+        Node<?> neighbor = edge.getOtherNode(this);
+        Integer position = edgeIndex.get(neighbor);
+        if (position == null || outgoingEdges.get(position) != edge) {
+            return false;
+        }
+        removeEdgeTo(neighbor);
+        return true;
+    }
+
+    void reserveEdges(int count) {
+        if (outgoingEdges instanceof ArrayList) {
+            ((ArrayList<Edge>) outgoingEdges).ensureCapacity(count);
+        }
     }
 }
@@ -0,0 +1,64 @@
+package org.graphs;
+
+/**
+ * Result of a single-source shortest path search over a {@link CsrGraph}.
+ * Unreachable nodes have distance {@link Double#POSITIVE_INFINITY} and predecessor -1,
+ * as does the source's predecessor.
+ */
+public class PathResult {
+
+    private final int source;
+    private final double[] distances;
+    private final int[] predecessors;
+
+    PathResult(int source, double[] distances, int[] predecessors) {
+        this.source = source;
+        this.distances = distances;
+        this.predecessors = predecessors;
+    }
+
+    public int getSource() {
+        return source;
+    }
+
+    /**
+     * Returns the distance array indexed by node id. The array is shared, not copied.
+     */
+    public double[] getDistances() {
+        return distances;
+    }
+
+    /**
+     * Returns the predecessor array indexed by node id. The array is shared, not copied.
+     */
+    public int[] getPredecessors() {
+        return predecessors;
+    }
+
+    public double getDistance(int node) {
+        return distances[node];
+    }
+
+    public boolean isReachable(int node) {
+        return distances[node] != Double.POSITIVE_INFINITY;
+    }
+
+    /**
+     * Reconstructs the path from the source to the node.
+     * @return The node ids along the path including both ends, or an empty array if unreachable.
+     */
+    public int[] pathTo(int node) {
+        if (!isReachable(node)) {
+            return new int[0];
+        }
+        int length = 1;
+        for (int v = node; v != source; v = predecessors[v]) {
+            length++;
+        }
+        int[] path = new int[length];
+        for (int v = node, i = length - 1; i >= 0; v = predecessors[v], i--) {
+            path[i] = v;
+        }
+        return path;
+    }
+}
@@ -0,0 +1,318 @@
+package org.graphs;
+
+import java.util.Arrays;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveTask;
+import java.util.concurrent.atomic.AtomicLongArray;
+
+/**
+ * Single-source shortest paths over the edge weights of a graph.
+ *
+ * Two engines are available: a sequential Dijkstra on a primitive indexed binary heap and a
+ * parallel delta-stepping search that relaxes each distance bucket on a {@link ForkJoinPool}.
+ * Both work on a {@link CsrGraph} snapshot and require non-negative weights.
+ */
+public final class ShortestPaths {
+
+    /** Node count above which {@link #compute(CsrGraph, int)} switches to delta-stepping. */
+    public static final int PARALLEL_NODE_THRESHOLD = 50_000;
+
+    /** Number of frontier nodes a single relaxation task handles before splitting. */
+    private static final int RELAX_SLICE = 1024;
+
+    private ShortestPaths() {
+    }
+
+    /**
+     * Runs the engine best suited to the size of the graph.
+     */
+    public static PathResult compute(CsrGraph<?> graph, int source) {
+        if (graph.nodeCount() < PARALLEL_NODE_THRESHOLD) {
+            return dijkstra(graph, source);
+        }
+        return deltaStepping(graph, source);
+    }
+
+    /**
+     * Freezes the graph and runs {@link #compute(CsrGraph, int)} from the given node.
+     * Node ids in the result are positions in {@link Graph#getNodes()}.
+     */
+    public static <T> PathResult compute(Graph<T> graph, Node<T> source) {
+        int id = graph.indexOf(source);
+        if (id < 0) {
+            throw new IllegalArgumentException("Source node " + source.getData() + " is not part of the graph.");
+        }
+        return compute(graph.freeze(), id);
+    }
+
+    /**
+     * Sequential Dijkstra search.
+     * @param graph The graph to search.
+     * @param source The id of the source node.
+     * @return The distances and predecessors of every node.
+     */
+    public static PathResult dijkstra(CsrGraph<?> graph, int source) {
+        int n = graph.nodeCount();
+        checkSource(n, source);
+
+        double[] distances = new double[n];
+        int[] predecessors = new int[n];
+        Arrays.fill(distances, Double.POSITIVE_INFINITY);
+        Arrays.fill(predecessors, -1);
+
+        IndexedMinHeap heap = new IndexedMinHeap(n);
+        distances[source] = 0.0;
+        heap.insertOrDecrease(source, 0.0);
+
+        while (!heap.isEmpty()) {
+            int u = heap.poll();
+            double du = distances[u];
+            for (int e = graph.edgeStart(u); e < graph.edgeEnd(u); e++) {
+                double w = graph.weight(e);
+                if (w < 0) {
+                    throw new IllegalArgumentException("Negative edge weight " + w + " on an edge leaving node " + u + ".");
+                }
+                int v = graph.target(e);
+                double candidate = du + w;
+                if (candidate < distances[v]) {
+                    distances[v] = candidate;
+                    predecessors[v] = u;
+                    heap.insertOrDecrease(v, candidate);
+                }
+            }
+        }
+        return new PathResult(source, distances, predecessors);
+    }
+
+    /**
+     * Parallel delta-stepping on the common pool with a bucket width derived from the
+     * largest edge weight and the average degree.
+     */
+    public static PathResult deltaStepping(CsrGraph<?> graph, int source) {
+        return deltaStepping(graph, source, defaultDelta(graph), ForkJoinPool.commonPool());
+    }
+
+    /**
+     * Parallel delta-stepping search.
+     *
+     * Nodes are kept in buckets of width {@code delta} by tentative distance. The lowest bucket
+     * is emptied by relaxing its light edges (weight at most delta) in parallel until no node
+     * re-enters it, then the heavy edges of every node settled in it are relaxed once.
+     * Predecessors are assigned afterwards by one pass over the edges that are tight with
+     * respect to the final distances, which always yields a proper tree.
+     * @param graph The graph to search.
+     * @param source The id of the source node.
+     * @param delta The bucket width, must be positive.
+     * @param pool The pool that runs the relaxation tasks.
+     * @return The distances and predecessors of every node.
+     */
+    public static PathResult deltaStepping(CsrGraph<?> graph, int source, double delta, ForkJoinPool pool) {
+        int n = graph.nodeCount();
+        checkSource(n, source);
+        if (!(delta > 0)) {
+            throw new IllegalArgumentException("Delta must be positive but was " + delta + ".");
+        }
+        checkWeights(graph);
+
+        AtomicLongArray distances = new AtomicLongArray(n);
+        long infinity = Double.doubleToRawLongBits(Double.POSITIVE_INFINITY);
+        for (int i = 0; i < n; i++) {
+            distances.set(i, infinity);
+        }
+        distances.set(source, Double.doubleToRawLongBits(0.0));
+
+        TreeMap<Long, IntList> buckets = new TreeMap<>();
+        IntList initial = new IntList();
+        initial.add(source);
+        buckets.put(0L, initial);
+
+        int[] frontierStamp = new int[n];
+        int[] settledStamp = new int[n];
+        int epoch = 0;
+        int bucketEpoch = 0;
+
+        while (!buckets.isEmpty()) {
+            Map.Entry<Long, IntList> first = buckets.pollFirstEntry();
+            long index = first.getKey();
+            IntList pending = first.getValue();
+            IntList settled = new IntList();
+            bucketEpoch++;
+
+            while (!pending.isEmpty()) {
+                epoch++;
+                IntList frontier = new IntList(pending.size());
+                for (int i = 0; i < pending.size(); i++) {
+                    int v = pending.get(i);
+                    if (frontierStamp[v] != epoch && bucketOf(distance(distances, v), delta) == index) {
+                        frontierStamp[v] = epoch;
+                        frontier.add(v);
+                        if (settledStamp[v] != bucketEpoch) {
+                            settledStamp[v] = bucketEpoch;
+                            settled.add(v);
+                        }
+                    }
+                }
+
+                IntList updated = relax(graph, distances, frontier.toArray(), delta, true, pool);
+                pending = new IntList();
+                for (int i = 0; i < updated.size(); i++) {
+                    int v = updated.get(i);
+                    long bucket = bucketOf(distance(distances, v), delta);
+                    if (bucket == index) {
+                        pending.add(v);
+                    } else {
+                        buckets.computeIfAbsent(bucket, b -> new IntList()).add(v);
+                    }
+                }
+            }
+
+            IntList updated = relax(graph, distances, settled.toArray(), delta, false, pool);
+            for (int i = 0; i < updated.size(); i++) {
+                int v = updated.get(i);
+                buckets.computeIfAbsent(bucketOf(distance(distances, v), delta), b -> new IntList()).add(v);
+            }
+        }
+
+        double[] result = new double[n];
+        for (int i = 0; i < n; i++) {
+            result[i] = distance(distances, i);
+        }
+        return new PathResult(source, result, tightPredecessors(graph, source, result));
+    }
+
+    private static IntList relax(CsrGraph<?> graph, AtomicLongArray distances, int[] frontier,
+                                 double delta, boolean light, ForkJoinPool pool) {
+        RelaxTask task = new RelaxTask(graph, distances, frontier, 0, frontier.length, delta, light);
+        if (frontier.length <= RELAX_SLICE) {
+            return task.compute();
+        }
+        return pool.invoke(task);
+    }
+
+    private static class RelaxTask extends RecursiveTask<IntList> {
+
+        private static final long serialVersionUID = 1L;
+
+        private final transient CsrGraph<?> graph;
+        private final AtomicLongArray distances;
+        private final int[] frontier;
+        private final int from;
+        private final int to;
+        private final double delta;
+        private final boolean light;
+
+        RelaxTask(CsrGraph<?> graph, AtomicLongArray distances, int[] frontier, int from, int to,
+                  double delta, boolean light) {
+            this.graph = graph;
+            this.distances = distances;
+            this.frontier = frontier;
+            this.from = from;
+            this.to = to;
+            this.delta = delta;
+            this.light = light;
+        }
+
+        @Override
+        protected IntList compute() {
+            if (to - from > RELAX_SLICE) {
+                int middle = (from + to) >>> 1;
+                RelaxTask left = new RelaxTask(graph, distances, frontier, from, middle, delta, light);
+                RelaxTask right = new RelaxTask(graph, distances, frontier, middle, to, delta, light);
+                left.fork();
+                IntList result = right.compute();
+                result.addAll(left.join());
+                return result;
+            }
+
+            IntList updated = new IntList();
+            for (int i = from; i < to; i++) {
+                int u = frontier[i];
+                double du = distance(distances, u);
+                for (int e = graph.edgeStart(u); e < graph.edgeEnd(u); e++) {
+                    double w = graph.weight(e);
+                    if ((w <= delta) == light) {
+                        int v = graph.target(e);
+                        if (lower(distances, v, du + w)) {
+                            updated.add(v);
+                        }
+                    }
+                }
+            }
+            return updated;
+        }
+    }
+
+    private static boolean lower(AtomicLongArray distances, int node, double candidate) {
+        long bits = Double.doubleToRawLongBits(candidate);
+        while (true) {
+            long current = distances.get(node);
+            if (candidate >= Double.longBitsToDouble(current)) {
+                return false;
+            }
+            if (distances.compareAndSet(node, current, bits)) {
+                return true;
+            }
+        }
+    }
+
+    private static int[] tightPredecessors(CsrGraph<?> graph, int source, double[] distances) {
+        int n = graph.nodeCount();
+        int[] predecessors = new int[n];
+        Arrays.fill(predecessors, -1);
+        boolean[] visited = new boolean[n];
+        int[] queue = new int[n];
+        int head = 0;
+        int tail = 0;
+        queue[tail++] = source;
+        visited[source] = true;
+        while (head < tail) {
+            int u = queue[head++];
+            double du = distances[u];
+            for (int e = graph.edgeStart(u); e < graph.edgeEnd(u); e++) {
+                int v = graph.target(e);
+                if (!visited[v] && du + graph.weight(e) == distances[v]) {
+                    visited[v] = true;
+                    predecessors[v] = u;
+                    queue[tail++] = v;
+                }
+            }
+        }
+        return predecessors;
+    }
+
+    private static double distance(AtomicLongArray distances, int node) {
+        return Double.longBitsToDouble(distances.get(node));
+    }
+
+    private static long bucketOf(double distance, double delta) {
+        return (long) (distance / delta);
+    }
+
+    private static double defaultDelta(CsrGraph<?> graph) {
+        double maxWeight = 0.0;
+        for (int e = 0; e < graph.edgeCount(); e++) {
+            maxWeight = Math.max(maxWeight, graph.weight(e));
+        }
+        if (maxWeight == 0.0 || graph.nodeCount() == 0) {
+            return 1.0;
+        }
+        double averageDegree = Math.max(1.0, (double) graph.edgeCount() / graph.nodeCount());
+        return maxWeight / averageDegree;
+    }
+
+    private static void checkWeights(CsrGraph<?> graph) {
+        for (int e = 0; e < graph.edgeCount(); e++) {
+            if (graph.weight(e) < 0) {
+                throw new IllegalArgumentException("Negative edge weight " + graph.weight(e) + " at edge slot " + e + ".");
+            }
+        }
+    }
+
+    private static void checkSource(int nodeCount, int source) {
+        if (source < 0 || source >= nodeCount) {
+            throw new IllegalArgumentException("Source id " + source + " is outside 0.." + (nodeCount - 1) + ".");
+        }
+    }
+}
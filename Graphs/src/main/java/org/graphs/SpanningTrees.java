@@ -0,0 +1,195 @@
+package org.graphs;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.atomic.AtomicIntegerArray;
+import java.util.stream.IntStream;
+
+/**
+ * Minimum spanning trees over the edge weights of a graph, returned as a {@link Tree}.
+ *
+ * Edge directions are ignored. Small graphs use Kruskal's algorithm with a {@link UnionFind};
+ * larger ones use Borůvka's algorithm, whose rounds scan all edges in parallel to find the
+ * cheapest edge leaving every component. A disconnected graph yields a spanning forest with
+ * one root per component.
+ */
+public final class SpanningTrees {
+
+    /** Edge count (after symmetrization) above which Borůvka is used. */
+    public static final int KRUSKAL_EDGE_LIMIT = 100_000;
+
+    private SpanningTrees() {
+    }
+
+    public static <T> Tree<T> minimumSpanningTree(Graph<T> graph) {
+        return minimumSpanningTree(graph.freeze());
+    }
+
+    public static <T> Tree<T> minimumSpanningTree(CsrGraph<T> graph) {
+        CsrGraph<T> undirected = graph.toUndirected();
+        if (undirected.edgeCount() <= KRUSKAL_EDGE_LIMIT) {
+            return kruskal(undirected);
+        }
+        return boruvka(undirected, ForkJoinPool.commonPool());
+    }
+
+    /**
+     * Kruskal's algorithm on an undirected snapshot, see {@link CsrGraph#toUndirected()}.
+     */
+    public static <T> Tree<T> kruskal(CsrGraph<T> graph) {
+        int[] sources = graph.edgeSources();
+        Integer[] order = new Integer[graph.edgeCount()];
+        for (int e = 0; e < order.length; e++) {
+            order[e] = e;
+        }
+        Arrays.sort(order, (a, b) -> compare(graph, sources, a, b));
+
+        UnionFind components = new UnionFind(graph.nodeCount());
+        IntList chosen = new IntList();
+        for (int e : order) {
+            if (components.union(sources[e], graph.target(e))) {
+                chosen.add(e);
+                if (components.componentCount() == 1) {
+                    break;
+                }
+            }
+        }
+        return toTree(graph, sources, chosen);
+    }
+
+    /**
+     * Parallel Borůvka's algorithm on an undirected snapshot, see {@link CsrGraph#toUndirected()}.
+     *
+     * Every round each node scans its edges in parallel and offers the cheapest edge into
+     * another component to its own component with a compare-and-set. Ties are broken by the
+     * endpoint ids, so all components agree on one total order and the chosen edges never
+     * form a cycle. The number of components at least halves per round.
+     */
+    public static <T> Tree<T> boruvka(CsrGraph<T> graph, ForkJoinPool pool) {
+        int n = graph.nodeCount();
+        int[] sources = graph.edgeSources();
+        int[] component = new int[n];
+        for (int v = 0; v < n; v++) {
+            component[v] = v;
+        }
+        UnionFind components = new UnionFind(n);
+        IntList chosen = new IntList();
+        AtomicIntegerArray best = new AtomicIntegerArray(n);
+
+        while (components.componentCount() > 1) {
+            for (int c = 0; c < n; c++) {
+                best.set(c, -1);
+            }
+            pool.submit(() -> IntStream.range(0, n).parallel().forEach(v -> {
+                int own = component[v];
+                for (int e = graph.edgeStart(v); e < graph.edgeEnd(v); e++) {
+                    if (component[graph.target(e)] == own) {
+                        continue;
+                    }
+                    while (true) {
+                        int current = best.get(own);
+                        if (current >= 0 && compare(graph, sources, e, current) >= 0) {
+                            break;
+                        }
+                        if (best.compareAndSet(own, current, e)) {
+                            break;
+                        }
+                    }
+                }
+            })).join();
+
+            boolean merged = false;
+            for (int c = 0; c < n; c++) {
+                int e = best.get(c);
+                if (e >= 0 && components.union(sources[e], graph.target(e))) {
+                    chosen.add(e);
+                    merged = true;
+                }
+            }
+            if (!merged) {
+                break;
+            }
+            for (int v = 0; v < n; v++) {
+                component[v] = components.find(v);
+            }
+        }
+        return toTree(graph, sources, chosen);
+    }
+
+    private static int compare(CsrGraph<?> graph, int[] sources, int edge1, int edge2) {
+        int result = Double.compare(graph.weight(edge1), graph.weight(edge2));
+        if (result != 0) {
+            return result;
+        }
+        int low1 = Math.min(sources[edge1], graph.target(edge1));
+        int low2 = Math.min(sources[edge2], graph.target(edge2));
+        if (low1 != low2) {
+            return Integer.compare(low1, low2);
+        }
+        return Integer.compare(Math.max(sources[edge1], graph.target(edge1)), Math.max(sources[edge2], graph.target(edge2)));
+    }
+
+    /**
+     * Links the chosen edges into tree nodes, rooting every component at its lowest node id.
+     */
+    private static <T> Tree<T> toTree(CsrGraph<T> graph, int[] sources, IntList chosen) {
+        int n = graph.nodeCount();
+        int m = chosen.size();
+
+        int[] offsets = new int[n + 1];
+        for (int i = 0; i < m; i++) {
+            int e = chosen.get(i);
+            offsets[sources[e] + 1]++;
+            offsets[graph.target(e) + 1]++;
+        }
+        for (int v = 0; v < n; v++) {
+            offsets[v + 1] += offsets[v];
+        }
+        int[] cursor = Arrays.copyOf(offsets, n);
+        int[] neighbors = new int[2 * m];
+        double[] weights = new double[2 * m];
+        for (int i = 0; i < m; i++) {
+            int e = chosen.get(i);
+            int u = sources[e];
+            int v = graph.target(e);
+            neighbors[cursor[u]] = v;
+            weights[cursor[u]++] = graph.weight(e);
+            neighbors[cursor[v]] = u;
+            weights[cursor[v]++] = graph.weight(e);
+        }
+
+        List<TreeNode<T>> nodes = new ArrayList<>(n);
+        Tree<T> tree = new Tree<>();
+        for (int v = 0; v < n; v++) {
+            TreeNode<T> node = new TreeNode<>(graph.getData(v));
+            nodes.add(node);
+            tree.addNode(node);
+        }
+
+        boolean[] visited = new boolean[n];
+        int[] queue = new int[n];
+        for (int root = 0; root < n; root++) {
+            if (visited[root]) {
+                continue;
+            }
+            int head = 0;
+            int tail = 0;
+            queue[tail++] = root;
+            visited[root] = true;
+            while (head < tail) {
+                int u = queue[head++];
+                for (int i = offsets[u]; i < offsets[u + 1]; i++) {
+                    int v = neighbors[i];
+                    if (!visited[v]) {
+                        visited[v] = true;
+                        tree.addEdge(nodes.get(u), nodes.get(v), weights[i]);
+                        queue[tail++] = v;
+                    }
+                }
+            }
+        }
+        return tree;
+    }
+}
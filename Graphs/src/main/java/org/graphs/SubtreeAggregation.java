@@ -0,0 +1,179 @@
+package org.graphs;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.ForkJoinTask;
+import java.util.concurrent.RecursiveAction;
+import java.util.function.DoubleBinaryOperator;
+import java.util.function.IntToDoubleFunction;
+import java.util.stream.IntStream;
+
+/**
+ * Bottom-up aggregation over the subtrees of a {@link Tree}, used by {@link Tree#aggregate}.
+ *
+ * Nodes are visited with an explicit stack, so the depth of the tree is not limited by the
+ * thread stack. Each task follows the heaviest child of every node itself and forks the
+ * other children whose subtrees hold at least {@link #FORK_THRESHOLD} nodes. A forked child
+ * is at most half the size of its parent, which bounds the nesting of tasks by log n even
+ * for long chains.
+ */
+class SubtreeAggregation {
+
+    static final int FORK_THRESHOLD = 8192;
+
+    private final int[] childOffsets;
+    private final int[] children;
+    private final int[] roots;
+    private final int[] sizes;
+
+    private SubtreeAggregation(int[] childOffsets, int[] children, int[] roots, int[] sizes) {
+        this.childOffsets = childOffsets;
+        this.children = children;
+        this.roots = roots;
+        this.sizes = sizes;
+    }
+
+    static <T> SubtreeAggregation of(Tree<T> tree) {
+        List<TreeNode<T>> nodes = tree.getNodes();
+        int n = nodes.size();
+
+        // Children as int ids in CSR layout, each node claimed by its first parent only
+        boolean[] claimed = new boolean[n];
+        int[] childOffsets = new int[n + 1];
+        IntList childIds = new IntList(n);
+        for (int u = 0; u < n; u++) {
+            for (TreeNode<T> child : nodes.get(u).getChildren()) {
+                int v = tree.indexOf(child);
+                if (v >= 0 && v != u && !claimed[v]) {
+                    claimed[v] = true;
+                    childIds.add(v);
+                }
+            }
+            childOffsets[u + 1] = childIds.size();
+        }
+        int[] children = childIds.toArray();
+
+        IntList rootIds = new IntList();
+        for (int u = 0; u < n; u++) {
+            if (!claimed[u]) {
+                rootIds.add(u);
+            }
+        }
+
+        // Subtree sizes in post-order, nodes on a parent cycle are never reached and keep size 0
+        int[] sizes = new int[n];
+        int[] stack = new int[n];
+        int[] cursor = new int[n];
+        for (int r = 0; r < rootIds.size(); r++) {
+            int top = 0;
+            stack[top++] = rootIds.get(r);
+            cursor[rootIds.get(r)] = childOffsets[rootIds.get(r)];
+            while (top > 0) {
+                int u = stack[top - 1];
+                if (cursor[u] < childOffsets[u + 1]) {
+                    int v = children[cursor[u]++];
+                    cursor[v] = childOffsets[v];
+                    stack[top++] = v;
+                } else {
+                    top--;
+                    int size = 1;
+                    for (int e = childOffsets[u]; e < childOffsets[u + 1]; e++) {
+                        size += sizes[children[e]];
+                    }
+                    sizes[u] = size;
+                }
+            }
+        }
+        return new SubtreeAggregation(childOffsets, children, rootIds.toArray(), sizes);
+    }
+
+    int[] sizes() {
+        return sizes.clone();
+    }
+
+    double[] aggregate(double[] values, DoubleBinaryOperator combine, ForkJoinPool pool) {
+        double[] results = new double[values.length];
+        List<AggregateTask> tasks = new ArrayList<>(roots.length);
+        for (int root : roots) {
+            tasks.add(new AggregateTask(root, values, results, combine));
+        }
+        pool.invoke(new RecursiveAction() {
+            @Override
+            protected void compute() {
+                ForkJoinTask.invokeAll(tasks);
+            }
+        });
+        return results;
+    }
+
+    static double[] values(int n, IntToDoubleFunction value) {
+        double[] values = new double[n];
+        IntStream range = IntStream.range(0, n);
+        if (n >= FORK_THRESHOLD) {
+            range = range.parallel();
+        }
+        range.forEach(i -> values[i] = value.applyAsDouble(i));
+        return values;
+    }
+
+    private class AggregateTask extends RecursiveAction {
+
+        private static final long serialVersionUID = 1L;
+
+        private final int root;
+        private final double[] values;
+        private final double[] results;
+        private final transient DoubleBinaryOperator combine;
+
+        AggregateTask(int root, double[] values, double[] results, DoubleBinaryOperator combine) {
+            this.root = root;
+            this.values = values;
+            this.results = results;
+            this.combine = combine;
+        }
+
+        @Override
+        protected void compute() {
+            IntList order = new IntList(Math.min(sizes[root], FORK_THRESHOLD * 2));
+            IntList stack = new IntList();
+            List<AggregateTask> forked = new ArrayList<>();
+
+            stack.add(root);
+            while (!stack.isEmpty()) {
+                int u = stack.removeLast();
+                order.add(u);
+                int heavy = -1;
+                for (int e = childOffsets[u]; e < childOffsets[u + 1]; e++) {
+                    int v = children[e];
+                    if (heavy < 0 || sizes[v] > sizes[heavy]) {
+                        heavy = v;
+                    }
+                }
+                for (int e = childOffsets[u]; e < childOffsets[u + 1]; e++) {
+                    int v = children[e];
+                    if (v != heavy && sizes[v] >= FORK_THRESHOLD) {
+                        AggregateTask task = new AggregateTask(v, values, results, combine);
+                        task.fork();
+                        forked.add(task);
+                    } else {
+                        stack.add(v);
+                    }
+                }
+            }
+            for (AggregateTask task : forked) {
+                task.join();
+            }
+
+            // Reverse pre-order visits every child before its parent
+            for (int i = order.size() - 1; i >= 0; i--) {
+                int u = order.get(i);
+                double result = values[u];
+                for (int e = childOffsets[u]; e < childOffsets[u + 1]; e++) {
+                    result = combine.applyAsDouble(result, results[children[e]]);
+                }
+                results[u] = result;
+            }
+        }
+    }
+}
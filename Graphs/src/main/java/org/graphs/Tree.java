@@ -1,25 +1,44 @@
 package org.graphs;
 
 import java.util.List;
+import java.util.Map;
 import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.concurrent.ForkJoinPool;
+import java.util.function.DoubleBinaryOperator;
+import java.util.function.ToDoubleFunction;
 
 public class Tree<T> {
     
     private List<TreeNode<T>> nodes;
+    private Map<TreeNode<?>, Integer> indices;
+    private TreeIndex<T> index;
 
     public Tree() {
         nodes = new ArrayList<>();
+        indices = new HashMap<>();
     }
 
     public void addNode(TreeNode<T> node) {
-        nodes.add(node);
+        if (indices.putIfAbsent(node, nodes.size()) == null) {
+            nodes.add(node);
+            if (index != null) {
+                index.nodeAdded(nodes.size() - 1);
+            }
+        }
     }
 
     public void addEdge(TreeNode<T> parent, TreeNode<T> child, double weight) {
         
         new DirectedEdge(parent, child, weight);
         parent.addChild(child);
+        child.addParent(parent);
 
+        addNode(parent);
+        addNode(child);
+        if (index != null) {
+            index.edgeAdded(indexOf(parent), indexOf(child));
+        }
     }
 
      public void addEdge(TreeNode<T> parent, TreeNode<T> child) {
@@ -30,6 +49,72 @@ public class Tree<T> {
         return nodes;
     }
 
+    /**
+     * Returns the position of the node in {@link #getNodes()}, or -1 if it is not part of the tree.
+     */
+    public int indexOf(TreeNode<?> node) {
+        Integer position = indices.get(node);
+        return position == null ? -1 : position;
+    }
+
+    /**
+     * Returns the ancestor query index of this tree, building it on first use. The index
+     * follows later calls to {@link #addEdge}, appending new leaves in O(log n) and
+     * rebuilding lazily after any other change of shape.
+     */
+    public TreeIndex<T> getIndex() {
+        if (index == null) {
+            index = new TreeIndex<>(this);
+        }
+        return index;
+    }
+
+    /**
+     * Folds a value over every subtree: the result of a node is its own value combined
+     * with the results of all of its children. Large subtrees are processed as separate
+     * ForkJoin tasks, so the value and combine functions must be thread-safe, and the
+     * combine function should be associative and commutative.
+     * @param value The value of a single node.
+     * @param combine Merges a partial result with the result of one child.
+     * @return The subtree results indexed like {@link #getNodes()}.
+     */
+    public double[] aggregate(ToDoubleFunction<? super TreeNode<T>> value, DoubleBinaryOperator combine) {
+        return aggregate(value, combine, ForkJoinPool.commonPool());
+    }
+
+    public double[] aggregate(ToDoubleFunction<? super TreeNode<T>> value, DoubleBinaryOperator combine, ForkJoinPool pool) {
+        double[] values = SubtreeAggregation.values(nodes.size(), i -> value.applyAsDouble(nodes.get(i)));
+        return SubtreeAggregation.of(this).aggregate(values, combine, pool);
+    }
+
+    public double[] subtreeSums(ToDoubleFunction<? super TreeNode<T>> value) {
+        return aggregate(value, Double::sum);
+    }
+
+    public double[] subtreeMaxima(ToDoubleFunction<? super TreeNode<T>> value) {
+        return aggregate(value, Math::max);
+    }
+
+    /**
+     * Returns the total weight of the edges below every node.
+     */
+    public double[] subtreeEdgeWeights() {
+        return subtreeSums(node -> {
+            double weight = 0.0;
+            for (Edge edge : node.getOutgoingEdges()) {
+                weight += edge.getWeight();
+            }
+            return weight;
+        });
+    }
+
+    /**
+     * Returns the number of nodes in every subtree, including the node itself.
+     */
+    public int[] subtreeSizes() {
+        return SubtreeAggregation.of(this).sizes();
+    }
+
     public void printTree() {
         for (TreeNode<?> node : nodes) {
             System.out.print(node.getData() + ": ");
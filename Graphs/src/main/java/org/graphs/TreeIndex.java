@@ -0,0 +1,225 @@
+package org.graphs;
+
+import java.util.Arrays;
+import java.util.List;
+
+/**
+ * Binary lifting index over a {@link Tree} answering depth, k-th ancestor, lowest common
+ * ancestor and subtree membership queries in O(log n) instead of walking parent links.
+ *
+ * Node ids are positions in {@link Tree#getNodes()}. A forest is supported: every node
+ * without a parent in the tree is a root of depth 0, and nodes of different roots have no
+ * common ancestor. Obtain an instance through {@link Tree#getIndex()} so that it is kept
+ * up to date as edges are added.
+ */
+public class TreeIndex<T> {
+
+    private final Tree<T> tree;
+    private int[] depth;
+    // up[k][v] is the 2^k-th ancestor of v, or the root of v if the tree is shallower
+    private int[][] up;
+    private boolean stale;
+
+    TreeIndex(Tree<T> tree) {
+        this.tree = tree;
+        this.stale = true;
+    }
+
+    /**
+     * Forces a full rebuild on the next query, e.g. after parent links were changed
+     * directly on the nodes.
+     */
+    public void invalidate() {
+        stale = true;
+    }
+
+    public int depth(TreeNode<T> node) {
+        return depth(id(node));
+    }
+
+    public int depth(int node) {
+        ensureBuilt();
+        return depth[node];
+    }
+
+    /**
+     * Returns the ancestor {@code k} levels above the node, or null if the node is less
+     * than {@code k} levels deep.
+     */
+    public TreeNode<T> ancestor(TreeNode<T> node, int k) {
+        int result = ancestor(id(node), k);
+        return result < 0 ? null : tree.getNodes().get(result);
+    }
+
+    public int ancestor(int node, int k) {
+        ensureBuilt();
+        if (k < 0 || k > depth[node]) {
+            return -1;
+        }
+        for (int level = 0; k != 0; level++, k >>>= 1) {
+            if ((k & 1) != 0) {
+                node = up[level][node];
+            }
+        }
+        return node;
+    }
+
+    /**
+     * Returns the lowest common ancestor of the two nodes, or null if they belong to
+     * different trees of the forest.
+     */
+    public TreeNode<T> lowestCommonAncestor(TreeNode<T> node1, TreeNode<T> node2) {
+        int result = lowestCommonAncestor(id(node1), id(node2));
+        return result < 0 ? null : tree.getNodes().get(result);
+    }
+
+    public int lowestCommonAncestor(int node1, int node2) {
+        ensureBuilt();
+        if (depth[node1] < depth[node2]) {
+            int swap = node1;
+            node1 = node2;
+            node2 = swap;
+        }
+        node1 = ancestor(node1, depth[node1] - depth[node2]);
+        if (node1 == node2) {
+            return node1;
+        }
+        for (int level = up.length - 1; level >= 0; level--) {
+            if (up[level][node1] != up[level][node2]) {
+                node1 = up[level][node1];
+                node2 = up[level][node2];
+            }
+        }
+        return up[0][node1] == up[0][node2] && depth[node1] > 0 ? up[0][node1] : -1;
+    }
+
+    /**
+     * Returns whether {@code ancestor} lies strictly above {@code node}.
+     */
+    public boolean isAncestor(TreeNode<T> ancestor, TreeNode<T> node) {
+        return isAncestor(id(ancestor), id(node));
+    }
+
+    public boolean isAncestor(int ancestor, int node) {
+        return ancestor != node && isInSubtree(node, ancestor);
+    }
+
+    /**
+     * Returns whether {@code node} is {@code root} or lies somewhere below it.
+     */
+    public boolean isInSubtree(TreeNode<T> node, TreeNode<T> root) {
+        return isInSubtree(id(node), id(root));
+    }
+
+    public boolean isInSubtree(int node, int root) {
+        ensureBuilt();
+        int difference = depth[node] - depth[root];
+        return difference >= 0 && ancestor(node, difference) == root;
+    }
+
+    void nodeAdded(int node) {
+        if (stale) {
+            return;
+        }
+        if (node >= depth.length) {
+            int capacity = Math.max(16, depth.length * 2);
+            if (levelsFor(capacity) > up.length) {
+                stale = true;
+                return;
+            }
+            depth = Arrays.copyOf(depth, capacity);
+            for (int level = 0; level < up.length; level++) {
+                up[level] = Arrays.copyOf(up[level], capacity);
+            }
+        }
+        depth[node] = 0;
+        for (int level = 0; level < up.length; level++) {
+            up[level][node] = node;
+        }
+    }
+
+    void edgeAdded(int parent, int child) {
+        if (stale) {
+            return;
+        }
+        // Only a fresh leaf can be appended cheaply, anything that moves an existing
+        // subtree changes the depth of all its nodes
+        if (depth[child] != 0 || up[0][child] != child || !tree.getNodes().get(child).isLeafNode()
+                || isInSubtree(parent, child)) {
+            stale = true;
+            return;
+        }
+        depth[child] = depth[parent] + 1;
+        up[0][child] = parent;
+        for (int level = 1; level < up.length; level++) {
+            up[level][child] = up[level - 1][up[level - 1][child]];
+        }
+    }
+
+    private int id(TreeNode<T> node) {
+        int id = tree.indexOf(node);
+        if (id < 0) {
+            throw new IllegalArgumentException("Node " + node.getData() + " is not part of the tree.");
+        }
+        return id;
+    }
+
+    private void ensureBuilt() {
+        if (!stale) {
+            return;
+        }
+        List<TreeNode<T>> nodes = tree.getNodes();
+        int n = nodes.size();
+        int capacity = Math.max(16, n);
+        depth = new int[capacity];
+        up = new int[levelsFor(capacity)][capacity];
+        int[] order = new int[n];
+        int head = 0;
+        int tail = 0;
+        boolean[] visited = new boolean[n];
+
+        for (int i = 0; i < n; i++) {
+            TreeNode<T> parent = nodes.get(i).getParent();
+            if (parent == null || tree.indexOf(parent) < 0) {
+                order[tail++] = i;
+                visited[i] = true;
+                up[0][i] = i;
+            }
+        }
+        while (head < n) {
+            if (head == tail) {
+                // Remaining nodes sit on a parent cycle, treat one of them as a root
+                for (int i = 0; i < n; i++) {
+                    if (!visited[i]) {
+                        order[tail++] = i;
+                        visited[i] = true;
+                        up[0][i] = i;
+                        break;
+                    }
+                }
+            }
+            int u = order[head++];
+            for (TreeNode<T> child : nodes.get(u).getChildren()) {
+                int v = tree.indexOf(child);
+                if (v >= 0 && !visited[v]) {
+                    visited[v] = true;
+                    depth[v] = depth[u] + 1;
+                    up[0][v] = u;
+                    order[tail++] = v;
+                }
+            }
+        }
+
+        for (int level = 1; level < up.length; level++) {
+            for (int i = 0; i < n; i++) {
+                int v = order[i];
+                up[level][v] = up[level - 1][up[level - 1][v]];
+            }
+        }
+        stale = false;
+    }
+
+    private static int levelsFor(int capacity) {
+        return Math.max(1, 32 - Integer.numberOfLeadingZeros(capacity));
+    }
+}
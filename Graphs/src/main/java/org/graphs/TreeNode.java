@@ -32,6 +32,10 @@ public class TreeNode<T> extends Node<T> {
         this.parent = node;
     }
 
+    public TreeNode<T> getParent() {
+        return parent;
+    }
+
     public void addChild(TreeNode<T> node) {
         this.children.add((TreeNode<T>) node);
     }
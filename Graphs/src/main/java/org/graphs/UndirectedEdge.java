@@ -11,12 +11,25 @@ public class UndirectedEdge implements Edge {
     }
 
     public UndirectedEdge(Node<?> node1, Node<?> node2, double weight) {
+        this(node1, node2, weight, true);
+    }
+
+    /**
+     * Bulk loaders create the edge first and attach it to both nodes themselves, one
+     * thread per node.
+     */
+    UndirectedEdge(Node<?> node1, Node<?> node2, double weight, boolean register) {
         this.node1 = node1;
         this.node2 = node2;
         this.weight = weight;
 
-        node1.addOutgoingEdge(this);
-        node2.addOutgoingEdge(this);
+        if (register) {
+            node1.addOutgoingEdge(this);
+            // A self-loop is listed once, like the bulk loaders and removeEdge expect
+            if (node2 != node1) {
+                node2.addOutgoingEdge(this);
+            }
+        }
     }
 
     public Node<?> getFromNode() {
@@ -0,0 +1,107 @@
+package org.graphs;
+
+import java.util.Arrays;
+
+/**
+ * Disjoint set forest over the ints 0..size-1 with path compression and union by rank.
+ * Elements can be appended at any time; removals are not supported, callers that delete
+ * edges rebuild the structure with {@link #reset(int)} and a fresh round of unions.
+ */
+public final class UnionFind {
+
+    private int[] parent;
+    private byte[] rank;
+    private int size;
+    private int components;
+
+    public UnionFind() {
+        this(0);
+    }
+
+    /**
+     * Creates a structure of {@code size} singleton sets.
+     */
+    public UnionFind(int size) {
+        parent = new int[Math.max(size, 16)];
+        rank = new byte[parent.length];
+        reset(size);
+    }
+
+    /**
+     * Discards all unions and starts over with {@code size} singleton sets.
+     */
+    public void reset(int size) {
+        if (size > parent.length) {
+            parent = new int[size];
+            rank = new byte[size];
+        }
+        for (int i = 0; i < size; i++) {
+            parent[i] = i;
+        }
+        Arrays.fill(rank, 0, size, (byte) 0);
+        this.size = size;
+        this.components = size;
+    }
+
+    /**
+     * Appends a new singleton set.
+     * @return The id of the new element.
+     */
+    public int add() {
+        if (size == parent.length) {
+            parent = Arrays.copyOf(parent, size * 2);
+            rank = Arrays.copyOf(rank, size * 2);
+        }
+        parent[size] = size;
+        rank[size] = 0;
+        components++;
+        return size++;
+    }
+
+    public int find(int element) {
+        int root = element;
+        while (parent[root] != root) {
+            root = parent[root];
+        }
+        while (parent[element] != root) {
+            int next = parent[element];
+            parent[element] = root;
+            element = next;
+        }
+        return root;
+    }
+
+    /**
+     * Merges the sets of the two elements.
+     * @return true if they were in different sets before the call.
+     */
+    public boolean union(int a, int b) {
+        int rootA = find(a);
+        int rootB = find(b);
+        if (rootA == rootB) {
+            return false;
+        }
+        if (rank[rootA] < rank[rootB]) {
+            parent[rootA] = rootB;
+        } else if (rank[rootA] > rank[rootB]) {
+            parent[rootB] = rootA;
+        } else {
+            parent[rootB] = rootA;
+            rank[rootA]++;
+        }
+        components--;
+        return true;
+    }
+
+    public boolean connected(int a, int b) {
+        return find(a) == find(b);
+    }
+
+    public int componentCount() {
+        return components;
+    }
+
+    public int size() {
+        return size;
+    }
+}
@@ -26,6 +26,8 @@ dependencies {
 
     implementation(project(":Transformations"))
 
+    implementation(project(":Graphs"))
+
 
     implementation("com.fasterxml.jackson.core:jackson-databind:2.21.0")
 
@@ -44,6 +46,16 @@ application {
 }
 
 
+// Renders a recorded scenario to PNG frames without a display:
+// ./gradlew :Lattice-Robots:renderScenario --args="scenario.json output/frames"
+tasks.register<JavaExec>("renderScenario") {
+    group = "application"
+    description = "Renders a scenario JSON file to PNG frames in headless mode."
+    classpath = sourceSets["main"].runtimeClasspath
+    mainClass.set("org.robots.HeadlessRenderer")
+    jvmArgs("-Djava.awt.headless=true")
+}
+
 tasks.named<Test>("test") {
     // Use JUnit Platform for unit tests.
     useJUnitPlatform()
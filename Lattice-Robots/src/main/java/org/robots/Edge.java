@@ -27,7 +27,30 @@ public class Edge {
         return toId;
     }
 
+    @Override
+    public boolean equals(Object obj) {
+        if (this == obj) return true;
+        if (!(obj instanceof Edge)) return false;
+        Edge other = (Edge) obj;
+        return fromId == other.fromId && toId == other.toId;
+    }
+
+    @Override
+    public int hashCode() {
+        return 31 * fromId + toId;
+    }
+
+    @Override
+    public String toString() {
+        return "Edge[" + fromId + " -> " + toId + "]";
+    }
+
     public void draw(Graphics2D g2d, LatticeRobot from, LatticeRobot to) {
+        drawLink(g2d, from, to);
+    }
+
+    //Draws the link from one robot to another, needs no Edge instance
+    static void drawLink(Graphics2D g2d, LatticeRobot from, LatticeRobot to) {
 
         Point2D pFrom = from.getPosition();
         Point2D pTo = to.getPosition();
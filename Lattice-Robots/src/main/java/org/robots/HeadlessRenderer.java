@@ -0,0 +1,172 @@
+package org.robots;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+
+import org.transformations.Robot;
+
+import java.awt.Color;
+import java.awt.Graphics2D;
+import java.awt.image.BufferedImage;
+import java.io.File;
+import java.io.IOException;
+import java.util.Collection;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.function.Consumer;
+import javax.imageio.ImageIO;
+
+//Renders swarm frames to PNG files without a window, e.g. for reports.
+//Frames are drawn on the calling thread into images taken from a small pool and encoded
+//on a fixed number of worker threads. When all images are waiting to be encoded the next
+//render call blocks until one is returned, which bounds memory and applies backpressure
+//to the producer.
+public class HeadlessRenderer implements AutoCloseable {
+
+    private final int width;
+    private final int height;
+    private final BlockingQueue<BufferedImage> freeImages;
+    private final ExecutorService encoders;
+    private final AtomicReference<IOException> failure = new AtomicReference<>();
+
+    public HeadlessRenderer(int width, int height) {
+        this(width, height, Runtime.getRuntime().availableProcessors());
+    }
+
+    //Uses twice as many images as encoder threads, so drawing can run ahead of encoding
+    public HeadlessRenderer(int width, int height, int encoderThreads) {
+        if(width <= 0 || height <= 0 || encoderThreads <= 0) {
+            throw new IllegalArgumentException("Size and encoder count must be positive but were " + width + "x" + height + " and " + encoderThreads + ".");
+        }
+        this.width = width;
+        this.height = height;
+        int imageCount = encoderThreads * 2;
+        this.freeImages = new ArrayBlockingQueue<>(imageCount);
+        for(int i = 0; i < imageCount; i++) {
+            freeImages.add(new BufferedImage(width, height, BufferedImage.TYPE_INT_ARGB));
+        }
+        this.encoders = Executors.newFixedThreadPool(encoderThreads, runnable -> {
+            Thread thread = new Thread(runnable, "png-encoder");
+            thread.setDaemon(true);
+            return thread;
+        });
+    }
+
+    //Draws the lattice robots and their edges into a pooled image and queues it for
+    //encoding to the file. Blocks while all pooled images are still being encoded
+    public void render(Map<Integer, LatticeRobot> robots, File output) throws IOException, InterruptedException {
+        render(g2d -> SwarmPainter.paint(g2d, robots), output);
+    }
+
+    //Same as above for the plain robots of the transformations demo
+    public void render(Collection<Robot> robots, File output) throws IOException, InterruptedException {
+        render(g2d -> {
+            for(Robot robot : robots) {
+                robot.draw(g2d);
+            }
+        }, output);
+    }
+
+    private void render(Consumer<Graphics2D> painter, File output) throws IOException, InterruptedException {
+        checkFailure();
+        BufferedImage image = freeImages.take();
+        Graphics2D g2d = image.createGraphics();
+        try {
+            //Clear to the panel's white background
+            g2d.setColor(Color.WHITE);
+            g2d.fillRect(0, 0, width, height);
+            painter.accept(g2d);
+        } finally {
+            g2d.dispose();
+        }
+        encoders.execute(() -> {
+            try {
+                if(!ImageIO.write(image, "png", output)) {
+                    throw new IOException("No PNG writer available.");
+                }
+            } catch (IOException e) {
+                failure.compareAndSet(null, new IOException("Error writing " + output + ": " + e.getMessage(), e));
+            } finally {
+                freeImages.add(image);
+            }
+        });
+    }
+
+    //Waits for all queued frames to be written
+    @Override
+    public void close() throws IOException {
+        encoders.shutdown();
+        try {
+            while(!encoders.awaitTermination(1, TimeUnit.MINUTES)) {
+                //Keep waiting for large backlogs
+            }
+        } catch (InterruptedException e) {
+            encoders.shutdownNow();
+            Thread.currentThread().interrupt();
+        }
+        checkFailure();
+    }
+
+    private void checkFailure() throws IOException {
+        IOException e = failure.get();
+        if(e != null) {
+            throw e;
+        }
+    }
+
+    //Renders a recorded scenario: a robot_data.json style file whose optional "frames"
+    //array holds one array of {id, x, y, orientation} poses per frame. Without frames the
+    //initial state is rendered once.
+    //Usage: HeadlessRenderer <scenario.json> <output directory> [width height]
+    public static void main(String[] args) throws Exception {
+        System.setProperty("java.awt.headless", "true");
+        if(args.length != 2 && args.length != 4) {
+            System.err.println("Usage: HeadlessRenderer <scenario.json> <output directory> [width height]");
+            System.exit(2);
+        }
+        File scenario = new File(args[0]);
+        File outputDir = new File(args[1]);
+        int width = args.length == 4 ? Integer.parseInt(args[2]) : 900;
+        int height = args.length == 4 ? Integer.parseInt(args[3]) : 900;
+        if(!outputDir.exists()) {
+            outputDir.mkdirs();
+        }
+
+        JsonNode rootNode = new ObjectMapper().readTree(scenario);
+        Map<Integer, LatticeRobot> robots = new LinkedHashMap<>();
+        SwarmJson.read(rootNode, robots, null);
+
+        JsonNode framesNode = rootNode.get("frames");
+        long start = System.nanoTime();
+        int frameCount = 0;
+        try (HeadlessRenderer renderer = new HeadlessRenderer(width, height)) {
+            if(framesNode == null || !framesNode.isArray() || framesNode.size() == 0) {
+                renderer.render(robots, frameFile(outputDir, 0));
+                frameCount = 1;
+            } else {
+                for(JsonNode frame : framesNode) {
+                    //Move the robots listed in this frame, the others keep their pose
+                    for(JsonNode pose : frame) {
+                        LatticeRobot robot = robots.get(pose.get("id").asInt());
+                        if(robot != null) {
+                            robot.setPosition(pose.get("x").asDouble(), pose.get("y").asDouble(), pose.get("orientation").asDouble());
+                        }
+                    }
+                    renderer.render(robots, frameFile(outputDir, frameCount++));
+                }
+            }
+        }
+        double seconds = (System.nanoTime() - start) / 1e9;
+        System.out.printf("Rendered %d frames to %s in %.2f s%n", frameCount, outputDir.getPath(), seconds);
+    }
+
+    private static File frameFile(File outputDir, int frame) {
+        return new File(outputDir, String.format("frame_%06d.png", frame));
+    }
+}
@@ -8,40 +8,83 @@ import java.awt.Graphics2D;
 import java.awt.Color;
 import java.awt.RenderingHints;
 import org.transformations.OrientedPoint;
+import org.transformations.RobotGlyph;
+import org.transformations.Transformation2D;
 import java.awt.Polygon;
 
 
-enum TrustLevel {
-    Friendly,
-    Suspected,
-    Hostile
-}
-
 public class LatticeRobot extends Polygon {
     //Robot unique identifier
     private final int AuthorityId;
-    private OrientedPoint position;
+    private final OrientedPoint position;
 
-    //Local knowledge & edges
-    private Set<Edge> edges;
+    //Local knowledge & edges, as the ids of linked robots
+    private final transient NeighborSet neighbors;
     private TrustLevel trustLevel;
 
-    private static final int ROBOT_SIZE = 40; // Size of the robot for drawing
-
+    //Connectivity tracker notified about link changes, if registered
+    private transient SwarmConnectivity connectivity;
+    //Spatial index notified about moves, if registered
+    private transient RobotSpatialIndex spatialIndex;
+
+    static final int ROBOT_SIZE = 40; // Size of the robot for drawing
+    private static final Color FRIENDLY_COLOR = new Color(0, 255, 0, 150);
+    private static final Color SUSPECTED_COLOR = new Color(255, 255, 0, 150);
+    private static final Color HOSTILE_COLOR = new Color(255, 0, 0, 150);
+
+    //Pose the polygon was last computed for, NaN until the first update
+    private double polygonX = Double.NaN;
+    private double polygonY = Double.NaN;
+    private double polygonOrientation = Double.NaN;
+    private final int[] vertexX = new int[RobotGlyph.VERTEX_COUNT];
+    private final int[] vertexY = new int[RobotGlyph.VERTEX_COUNT];
+    private final Polygon trustPolygon = new Polygon();
+
+    //The robot keeps its own copy of the position, so robots built from one point move apart
     public LatticeRobot(int authorityId, OrientedPoint position) {
         this.AuthorityId = authorityId;
-        this.position = position;
+        this.position = new OrientedPoint(position.x, position.y, position.getOrientation());
         this.trustLevel = TrustLevel.Friendly;
-        this.edges = new HashSet<>();
+        this.neighbors = new NeighborSet();
     }
 
+    //Links both robots to each other, linking them again has no effect
     public void addNeighbor(LatticeRobot other) {
-        this.edges.add(new Edge(this.getAuthorityId(), other.getAuthorityId()));
-        other.edges.add(new Edge(other.getAuthorityId(), this.getAuthorityId()));
+        if(other.getAuthorityId() == this.getAuthorityId()) {
+            throw new IllegalArgumentException("An edge cannot connect a robot to itself.");
+        }
+        boolean added = this.neighbors.add(other.getAuthorityId());
+        added |= other.neighbors.add(this.getAuthorityId());
+        if(added && connectivity != null) {
+            connectivity.linked(this, other);
+        }
     }
 
+    //Removes the link between both robots
     public void removeNeighbor(LatticeRobot neighbor) {
-        this.edges.removeIf(edge -> edge.getToId() == neighbor.getAuthorityId());
+        boolean removed = this.neighbors.remove(neighbor.getAuthorityId());
+        removed |= neighbor.neighbors.remove(this.getAuthorityId());
+        if(removed && connectivity != null) {
+            connectivity.unlinked();
+        }
+    }
+
+    //Whether the robot has a link to the robot with the given id
+    public boolean hasNeighbor(int authorityId) {
+        return neighbors.contains(authorityId);
+    }
+
+    //The ids of all linked robots, see NeighborSet for iterating them without allocating
+    public NeighborSet getNeighbors() {
+        return neighbors;
+    }
+
+    void setConnectivity(SwarmConnectivity connectivity) {
+        this.connectivity = connectivity;
+    }
+
+    void setSpatialIndex(RobotSpatialIndex spatialIndex) {
+        this.spatialIndex = spatialIndex;
     }
 
     public int getAuthorityId() {
@@ -56,15 +99,47 @@ public class LatticeRobot extends Polygon {
         this.trustLevel = trustLevel;
     }
 
+    //Returns the robot's own position object, not a copy. Treat it as read-only: changing
+    //it directly, e.g. with Transformation2D.applyTo(robot.getPosition()), is not seen by
+    //the spatial index, so hit-testing and region queries can miss the
+    //robot. Move the robot with setPosition or applyTransform instead
     public OrientedPoint getPosition() {
         return position;
     }
 
+    //Copies the pose into the robot's own position object
     public void setPosition(OrientedPoint position) {
-        this.position = position;
+        this.position.setPose(position);
+        moved();
+    }
+
+    //Moves the robot by updating its current position object in place
+    public void setPosition(double x, double y, double orientation) {
+        position.setPose(x, y, orientation);
+        moved();
+    }
+
+    //Moves the robot by a transformation in the world frame, without allocating
+    public void applyTransform(Transformation2D transformation) {
+        transformation.applyTo(position);
+        moved();
     }
 
+    //Tells the registered index about a changed pose
+    private void moved() {
+        if(spatialIndex != null) {
+            spatialIndex.moved(this);
+        }
+    }
+
+    //Creates a new set of new edges on every call, kept only for compatibility.
+    //Use getNeighbors() instead, it walks the links without allocating
+    @Deprecated
     public Set<Edge> getEdges() {
+        Set<Edge> edges = new HashSet<>();
+        for(int c = neighbors.first(); c != NeighborSet.END; c = neighbors.next(c)) {
+            edges.add(new Edge(AuthorityId, neighbors.get(c)));
+        }
         return Collections.unmodifiableSet(edges);
     }
 
@@ -87,23 +162,21 @@ public class LatticeRobot extends Polygon {
     }
 
     public void draw(Graphics2D g2d) {
-        //Update polygon points before drawing
+        //Update polygon points before drawing, if the pose changed
         updatePolygon();
-        //Create trust level polygon
-        Polygon trustPolygon = createTrustPolygon();
 
         g2d.setRenderingHint(RenderingHints.KEY_ANTIALIASING, RenderingHints.VALUE_ANTIALIAS_ON);
 
         // Draw trust level polygon
         switch (trustLevel) {
             case Friendly:
-                g2d.setColor(new Color(0, 255, 0, 150)); // Semi-transparent green
+                g2d.setColor(FRIENDLY_COLOR); // Semi-transparent green
                 break;
             case Suspected:
-                g2d.setColor(new Color(255, 255, 0, 150)); // Semi-transparent yellow
+                g2d.setColor(SUSPECTED_COLOR); // Semi-transparent yellow
                 break;
             case Hostile:
-                g2d.setColor(new Color(255, 0, 0, 150)); // Semi-transparent red
+                g2d.setColor(HOSTILE_COLOR); // Semi-transparent red
                 break;
         }
         g2d.fill(trustPolygon);
@@ -114,39 +187,26 @@ public class LatticeRobot extends Polygon {
     }
 
     private void updatePolygon() {
-        // Update polygon points based on current position and orientation
-        double s = ROBOT_SIZE;
-        double R = s / Math.sqrt(3.0);
-        double theta0 = position.getOrientation();
-        int[] xcoords = new int[4];
-        int[] ycoords = new int[4]; 
-        //Calculate first triangle vertices
-        double radius = R * 1.20;
-        double angle = theta0; // 0 angle for the first vertex 
-        xcoords[0] =  (int) Math.round(position.x + radius * Math.cos(angle));
-        ycoords[0] =  (int) Math.round(position.y + radius * Math.sin(angle)); 
-        //Calculate second triangle vertices
-        angle = theta0 + 2 * Math.PI / 3.0; // 120 degrees or 2π/3 radians
-        xcoords[1] =  (int) Math.round(position.x + R * Math.cos(angle));
-        ycoords[1] =  (int) Math.round(position.y + R * Math.sin(angle)); 
-        //Calculate third vertice (for flag like tail)
-        radius = R * 0.1;
-        angle = theta0 + Math.PI; /// 180 degrees or π radians 
-        xcoords[2] =  (int) Math.round(position.x + radius * Math.cos(angle));
-        ycoords[2] =  (int) Math.round(position.y + radius * Math.sin(angle)); 
-        //Calculate fourth triangle vertices
-        angle = theta0 + 4 * Math.PI / 3.0; // 240 degrees or 4π/3 radians
-        xcoords[3] =  (int) Math.round(position.x + R * Math.cos(angle));
-        ycoords[3] =  (int) Math.round(position.y + R * Math.sin(angle));
+        //Only recompute when position or orientation changed since the last update
+        if(position.x == polygonX && position.y == polygonY && position.getOrientation() == polygonOrientation) {
+            return;
+        }
+        polygonX = position.x;
+        polygonY = position.y;
+        polygonOrientation = position.getOrientation();
+
+        // Rotate the shared unit glyph with one sine/cosine pair
+        RobotGlyph.vertices(polygonX, polygonY, polygonOrientation, ROBOT_SIZE, vertexX, vertexY);
 
         this.reset();
 
-        for(int i = 0; i < xcoords.length; i++) {
-            this.addPoint(xcoords[i], ycoords[i]);
+        for(int i = 0; i < RobotGlyph.VERTEX_COUNT; i++) {
+            this.addPoint(vertexX[i], vertexY[i]);
         }
+        updateTrustPolygon();
     }
 
-    private Polygon createTrustPolygon() {
+    private void updateTrustPolygon() {
 
         //Calculate Centroid of the robot polygon
         int centroidX = 0;
@@ -158,16 +218,14 @@ public class LatticeRobot extends Polygon {
         centroidX /= this.npoints;
         centroidY /= this.npoints;
 
-        //Create a new polygon for trust level visualization
-        Polygon trustPolygon = new Polygon();
+        //Refill the trust level polygon, reusing its point arrays
+        trustPolygon.reset();
         for (int i = 0; i < this.npoints; i++) {
             //Scale points away from centroid
             int scaledX = (int) Math.round(centroidX + 1.2 * (this.xpoints[i] - centroidX));
             int scaledY = (int) Math.round(centroidY + 1.2 * (this.ypoints[i] - centroidY));
             trustPolygon.addPoint(scaledX, scaledY);
         }
-
-        return trustPolygon;
     }
 
     @Override
@@ -175,4 +233,10 @@ public class LatticeRobot extends Polygon {
         updatePolygon();
         return super.contains(x, y);
     }
+
+    @Override
+    public boolean intersects(double x, double y, double w, double h) {
+        updatePolygon();
+        return super.intersects(x, y, w, h);
+    }
 }
\ No newline at end of file
@@ -0,0 +1,374 @@
+package org.robots;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.stream.IntStream;
+
+//Links every pair of robots within a communication radius of each other.
+//Robot centers are hashed into a grid with cells as wide as the radius, so the neighbors
+//of a robot are found among the 3x3 cells around it and a whole swarm is linked in O(n).
+//The grid is kept between calls and update() only moves robots that changed cell, so
+//relinking a few moved robots does not touch the rest of the swarm.
+//Finding the neighbors only reads positions and runs in parallel for large swarms; the
+//resulting link changes are then applied on the calling thread, since robots and the
+//connectivity tracker are not thread-safe. Only the differences to the current links are
+//applied, so robots keep their edges while they stay in range.
+public class NeighborDiscovery {
+
+    /** Below this number of robots neighbors are searched on the calling thread. */
+    public static final int PARALLEL_THRESHOLD = 1024;
+
+    private final double radius;
+    private final double radiusSquared;
+
+    //Robots of the swarm by slot, with their positions at the last (re)link
+    private LatticeRobot[] robots = new LatticeRobot[0];
+    private final Map<Integer, Integer> slots = new HashMap<>();
+    private double[] x = new double[0];
+    private double[] y = new double[0];
+
+    //Grid over those positions: slot i lies in cell cellOf[i], at position cellSlot[i] of
+    //the cell's members
+    private final CellGrid grid = new CellGrid();
+    private long[] cellOf = new long[0];
+    private int[] cellSlot = new int[0];
+    private boolean[] moved = new boolean[0];
+
+    public NeighborDiscovery(double radius) {
+        if(!(radius > 0)) {
+            throw new IllegalArgumentException("The communication radius must be positive but was " + radius + ".");
+        }
+        this.radius = radius;
+        this.radiusSquared = radius * radius;
+    }
+
+    public double getRadius() {
+        return radius;
+    }
+
+    //Makes the robots the swarm tracked by update() and relinks all of them: robots within
+    //the radius of each other are linked, all other links between them are removed.
+    //Links to robots outside the collection are left alone.
+    //Returns the number of links added or removed
+    public int rebuild(Collection<LatticeRobot> swarm) {
+        robots = swarm.toArray(new LatticeRobot[0]);
+        int n = robots.length;
+        slots.clear();
+        grid.clear();
+        x = new double[n];
+        y = new double[n];
+        cellOf = new long[n];
+        cellSlot = new int[n];
+        moved = new boolean[n];
+        for(int i = 0; i < n; i++) {
+            if(slots.put(robots[i].getAuthorityId(), i) != null) {
+                throw new IllegalArgumentException("Duplicate robot " + robots[i].getAuthorityId() + " in the swarm.");
+            }
+            x[i] = robots[i].getPosition().x;
+            y[i] = robots[i].getPosition().y;
+            cellOf[i] = cellOf(x[i], y[i]);
+            cellSlot[i] = grid.insert(cellOf[i], i);
+        }
+        Arrays.fill(moved, true);
+        int changes = relink(IntStream.range(0, n).toArray());
+        Arrays.fill(moved, false);
+        return changes;
+    }
+
+    //Relinks only the robots of the swarm that moved since the last rebuild or update.
+    //Links between two robots that both stayed in place cannot have changed.
+    //Returns the number of links added or removed
+    public int update() {
+        int n = robots.length;
+        int[] movedSlots = new int[8];
+        int count = 0;
+        for(int i = 0; i < n; i++) {
+            double px = robots[i].getPosition().x;
+            double py = robots[i].getPosition().y;
+            if(px != x[i] || py != y[i]) {
+                x[i] = px;
+                y[i] = py;
+                if(count == movedSlots.length) {
+                    movedSlots = Arrays.copyOf(movedSlots, count * 2);
+                }
+                movedSlots[count++] = i;
+            }
+        }
+        if(count == 0) {
+            return 0;
+        }
+        movedSlots = Arrays.copyOf(movedSlots, count);
+
+        //Move the robots that left their cell, the rest of the grid stays as it is
+        for(int i : movedSlots) {
+            moved[i] = true;
+            long cell = cellOf(x[i], y[i]);
+            if(cell != cellOf[i]) {
+                int displaced = grid.remove(cellOf[i], cellSlot[i]);
+                if(displaced >= 0) {
+                    cellSlot[displaced] = cellSlot[i];
+                }
+                cellOf[i] = cell;
+                cellSlot[i] = grid.insert(cell, i);
+            }
+        }
+        int changes = relink(movedSlots);
+        for(int i : movedSlots) {
+            moved[i] = false;
+        }
+        return changes;
+    }
+
+    //Links the moved robots, which are flagged in moved[], to their current neighbors
+    private int relink(int[] movedSlots) {
+        //Find the neighbors of every moved robot, each task writes only its own entry
+        int[][] neighbors = new int[movedSlots.length][];
+        if(movedSlots.length < PARALLEL_THRESHOLD) {
+            for(int k = 0; k < movedSlots.length; k++) {
+                neighbors[k] = neighborsOf(movedSlots[k]);
+            }
+        } else {
+            IntStream.range(0, movedSlots.length).parallel()
+                    .forEach(k -> neighbors[k] = neighborsOf(movedSlots[k]));
+        }
+
+        int changes = 0;
+        List<LatticeRobot> stale = new ArrayList<>();
+        for(int k = 0; k < movedSlots.length; k++) {
+            int i = movedSlots[k];
+            LatticeRobot robot = robots[i];
+            int[] found = neighbors[k];
+
+            //Drop links to robots of the swarm that are out of range now
+            stale.clear();
+            NeighborSet linked = robot.getNeighbors();
+            for(int c = linked.first(); c != NeighborSet.END; c = linked.next(c)) {
+                Integer j = slots.get(linked.get(c));
+                if(j != null && Arrays.binarySearch(found, j) < 0) {
+                    stale.add(robots[j]);
+                }
+            }
+            for(LatticeRobot other : stale) {
+                robot.removeNeighbor(other);
+                changes++;
+            }
+
+            //Link robots in range, each pair once: by the moved robot with the lower slot
+            for(int j : found) {
+                if(moved[j] && j < i) {
+                    continue;
+                }
+                LatticeRobot other = robots[j];
+                if(!robot.hasNeighbor(other.getAuthorityId()) || !other.hasNeighbor(robot.getAuthorityId())) {
+                    robot.addNeighbor(other);
+                    changes++;
+                }
+            }
+        }
+        return changes;
+    }
+
+    //Returns the slots of all other robots within the radius, sorted
+    private int[] neighborsOf(int i) {
+        int cx = cellCoordinate(x[i]);
+        int cy = cellCoordinate(y[i]);
+        int[] found = new int[8];
+        int count = 0;
+        for(int a = cx - 1; a <= cx + 1; a++) {
+            for(int b = cy - 1; b <= cy + 1; b++) {
+                int cell = grid.find(key(a, b));
+                if(cell < 0) {
+                    continue;
+                }
+                int[] members = grid.members(cell);
+                for(int m = 0, size = grid.size(cell); m < size; m++) {
+                    int j = members[m];
+                    double dx = x[j] - x[i];
+                    double dy = y[j] - y[i];
+                    if(j != i && dx * dx + dy * dy <= radiusSquared) {
+                        if(count == found.length) {
+                            found = Arrays.copyOf(found, count * 2);
+                        }
+                        found[count++] = j;
+                    }
+                }
+            }
+        }
+        found = Arrays.copyOf(found, count);
+        Arrays.sort(found);
+        return found;
+    }
+
+    private int cellCoordinate(double coordinate) {
+        return (int) Math.floor(coordinate / radius);
+    }
+
+    private long cellOf(double px, double py) {
+        return key(cellCoordinate(px), cellCoordinate(py));
+    }
+
+    private static long key(int cx, int cy) {
+        return ((long) cx << 32) | (cy & 0xffffffffL);
+    }
+
+    //Occupied cells of the grid with their member slots. Packed cell keys map to cell
+    //numbers through an open-addressing table with linear probing, free entries hold -1;
+    //cells that become empty are dropped and their numbers reused
+    private static final class CellGrid {
+
+        private long[] keys = new long[16];
+        private int[] values = filled(16);
+        private int occupied;
+
+        private int[][] members = new int[16][];
+        private int[] sizes = new int[16];
+        private int[] freeCells = new int[16];
+        private int freeCount;
+        private int cellCount;
+
+        //Returns the number of the cell, or -1 if it is empty
+        int find(long key) {
+            int mask = keys.length - 1;
+            for(int i = home(key, mask); values[i] >= 0; i = (i + 1) & mask) {
+                if(keys[i] == key) {
+                    return values[i];
+                }
+            }
+            return -1;
+        }
+
+        int[] members(int cell) {
+            return members[cell];
+        }
+
+        int size(int cell) {
+            return sizes[cell];
+        }
+
+        //Adds the slot to the cell and returns its position among the cell's members
+        int insert(long key, int slot) {
+            int mask = keys.length - 1;
+            int i = home(key, mask);
+            while(values[i] >= 0 && keys[i] != key) {
+                i = (i + 1) & mask;
+            }
+            int cell = values[i];
+            if(cell < 0) {
+                cell = newCell();
+                keys[i] = key;
+                values[i] = cell;
+                occupied++;
+                //Keep the table at most half full
+                if(2 * occupied > keys.length) {
+                    rehash(keys.length * 2);
+                }
+            }
+            int[] cellMembers = members[cell];
+            int position = sizes[cell]++;
+            if(position == cellMembers.length) {
+                members[cell] = cellMembers = Arrays.copyOf(cellMembers, position * 2);
+            }
+            cellMembers[position] = slot;
+            return position;
+        }
+
+        //Removes the member at the position by moving the cell's last member into it.
+        //Returns the slot that was moved, or -1 if there was none
+        int remove(long key, int position) {
+            int cell = find(key);
+            int last = --sizes[cell];
+            if(last == 0) {
+                drop(key);
+                freeCells[freeCount++] = cell;
+                return -1;
+            }
+            if(position == last) {
+                return -1;
+            }
+            int displaced = members[cell][last];
+            members[cell][position] = displaced;
+            return displaced;
+        }
+
+        void clear() {
+            keys = new long[16];
+            values = filled(16);
+            occupied = 0;
+            members = new int[16][];
+            sizes = new int[16];
+            freeCells = new int[16];
+            freeCount = 0;
+            cellCount = 0;
+        }
+
+        private int newCell() {
+            if(freeCount > 0) {
+                return freeCells[--freeCount];
+            }
+            if(cellCount == members.length) {
+                members = Arrays.copyOf(members, cellCount * 2);
+                sizes = Arrays.copyOf(sizes, cellCount * 2);
+                freeCells = Arrays.copyOf(freeCells, cellCount * 2);
+            }
+            members[cellCount] = new int[4];
+            return cellCount++;
+        }
+
+        private void drop(long key) {
+            int mask = keys.length - 1;
+            int i = home(key, mask);
+            while(keys[i] != key || values[i] < 0) {
+                i = (i + 1) & mask;
+            }
+            //Shift later entries of the probe run back into the gap
+            int j = i;
+            while(true) {
+                j = (j + 1) & mask;
+                if(values[j] < 0) {
+                    break;
+                }
+                int k = home(keys[j], mask);
+                if(i <= j ? (k <= i || k > j) : (k <= i && k > j)) {
+                    keys[i] = keys[j];
+                    values[i] = values[j];
+                    i = j;
+                }
+            }
+            values[i] = -1;
+            occupied--;
+        }
+
+        private void rehash(int capacity) {
+            long[] oldKeys = keys;
+            int[] oldValues = values;
+            keys = new long[capacity];
+            values = filled(capacity);
+            int mask = capacity - 1;
+            for(int e = 0; e < oldKeys.length; e++) {
+                if(oldValues[e] >= 0) {
+                    int i = home(oldKeys[e], mask);
+                    while(values[i] >= 0) {
+                        i = (i + 1) & mask;
+                    }
+                    keys[i] = oldKeys[e];
+                    values[i] = oldValues[e];
+                }
+            }
+        }
+
+        private static int[] filled(int capacity) {
+            int[] empty = new int[capacity];
+            Arrays.fill(empty, -1);
+            return empty;
+        }
+
+        private static int home(long key, int mask) {
+            int h = (int) (key ^ (key >>> 32)) * 0x9E3779B9;
+            return (h ^ (h >>> 16)) & mask;
+        }
+    }
+}
@@ -0,0 +1,188 @@
+package org.robots;
+
+import java.util.Arrays;
+import java.util.function.IntConsumer;
+
+//The authority ids of a robot's neighbors, as an open-addressing hash set of ints.
+//Ids are kept in a single int[] with linear probing and removed by shifting the following
+//entries back, so there are no tombstones and no objects per link. The set is read-only
+//outside the package; links are changed through LatticeRobot so both ends stay in sync.
+//Iterate without allocating using a cursor:
+//  for(int c = set.first(); c != NeighborSet.END; c = set.next(c)) { int id = set.get(c); }
+//The set must not be changed while a cursor walks it.
+public final class NeighborSet {
+
+    //Cursor value after the last neighbor
+    public static final int END = -1;
+
+    //Marks free slots; the id itself is tracked by a flag and visited after the table
+    private static final int FREE = Integer.MIN_VALUE;
+    private static final int MIN_CAPACITY = 4;
+
+    private int[] keys;
+    private int size;
+    private boolean containsFree;
+
+    NeighborSet() {
+        keys = new int[MIN_CAPACITY];
+        Arrays.fill(keys, FREE);
+    }
+
+    public int size() {
+        return size;
+    }
+
+    public boolean isEmpty() {
+        return size == 0;
+    }
+
+    public boolean contains(int id) {
+        if(id == FREE) {
+            return containsFree;
+        }
+        int mask = keys.length - 1;
+        for(int i = home(id, mask); keys[i] != FREE; i = (i + 1) & mask) {
+            if(keys[i] == id) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    //Returns false if the id was already present
+    boolean add(int id) {
+        if(id == FREE) {
+            if(containsFree) {
+                return false;
+            }
+            containsFree = true;
+            size++;
+            return true;
+        }
+        int mask = keys.length - 1;
+        int i = home(id, mask);
+        while(keys[i] != FREE) {
+            if(keys[i] == id) {
+                return false;
+            }
+            i = (i + 1) & mask;
+        }
+        keys[i] = id;
+        size++;
+        //Keep the table at most three quarters full
+        if(4 * size > 3 * keys.length) {
+            rehash(keys.length * 2);
+        }
+        return true;
+    }
+
+    //Returns false if the id was not present
+    boolean remove(int id) {
+        if(id == FREE) {
+            if(!containsFree) {
+                return false;
+            }
+            containsFree = false;
+            size--;
+            return true;
+        }
+        int mask = keys.length - 1;
+        int i = home(id, mask);
+        while(keys[i] != id) {
+            if(keys[i] == FREE) {
+                return false;
+            }
+            i = (i + 1) & mask;
+        }
+        //Shift later entries of the probe run back into the gap
+        int j = i;
+        while(true) {
+            j = (j + 1) & mask;
+            int key = keys[j];
+            if(key == FREE) {
+                break;
+            }
+            int k = home(key, mask);
+            //Move the entry unless its home lies cyclically in (i, j]
+            if(i <= j ? (k <= i || k > j) : (k <= i && k > j)) {
+                keys[i] = key;
+                i = j;
+            }
+        }
+        keys[i] = FREE;
+        size--;
+        return true;
+    }
+
+    void clear() {
+        keys = new int[MIN_CAPACITY];
+        Arrays.fill(keys, FREE);
+        size = 0;
+        containsFree = false;
+    }
+
+    //Returns the cursor of the first neighbor, or END
+    public int first() {
+        return next(-1);
+    }
+
+    //Returns the cursor of the neighbor after the given one, or END
+    public int next(int cursor) {
+        for(int i = cursor + 1; i < keys.length; i++) {
+            if(keys[i] != FREE) {
+                return i;
+            }
+        }
+        if(containsFree && cursor < keys.length) {
+            return keys.length;
+        }
+        return END;
+    }
+
+    //Returns the neighbor id at a cursor
+    public int get(int cursor) {
+        return cursor == keys.length ? FREE : keys[cursor];
+    }
+
+    public void forEach(IntConsumer action) {
+        for(int c = first(); c != END; c = next(c)) {
+            action.accept(get(c));
+        }
+    }
+
+    public int[] toArray() {
+        int[] ids = new int[size];
+        int n = 0;
+        for(int c = first(); c != END; c = next(c)) {
+            ids[n++] = get(c);
+        }
+        return ids;
+    }
+
+    private void rehash(int capacity) {
+        int[] old = keys;
+        keys = new int[capacity];
+        Arrays.fill(keys, FREE);
+        int mask = capacity - 1;
+        for(int key : old) {
+            if(key != FREE) {
+                int i = home(key, mask);
+                while(keys[i] != FREE) {
+                    i = (i + 1) & mask;
+                }
+                keys[i] = key;
+            }
+        }
+    }
+
+    //Fibonacci hashing spreads consecutive ids over the table
+    private static int home(int id, int mask) {
+        int h = id * 0x9E3779B9;
+        return (h ^ (h >>> 16)) & mask;
+    }
+
+    @Override
+    public String toString() {
+        return Arrays.toString(toArray());
+    }
+}
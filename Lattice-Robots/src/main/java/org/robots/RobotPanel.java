@@ -2,15 +2,12 @@ package org.robots;
 
 import javax.swing.JPanel;
 
-import org.transformations.OrientedPoint;
-
-import com.fasterxml.jackson.databind.JsonNode;
-import com.fasterxml.jackson.databind.ObjectMapper;
-import com.fasterxml.jackson.databind.node.ArrayNode;
-import com.fasterxml.jackson.databind.node.ObjectNode;
+import org.transformations.PoseBuffer;
+import org.transformations.SimulationEngine;
 
 import java.util.LinkedHashMap;
 import java.util.Map;
+import javax.swing.Timer;
 import java.awt.event.KeyEvent;
 import java.awt.event.MouseMotionAdapter;
 import java.awt.event.KeyListener;
@@ -24,14 +21,24 @@ import java.time.LocalDateTime;
 
 public class RobotPanel extends JPanel {
     
-    private static Map<Integer, LatticeRobot> robots;
+    //State of the swarm shown by this panel
+    private final transient SwarmStore store = new SwarmStore();
+    private final transient SwarmConnectivity connectivity = new SwarmConnectivity();
+    private final transient RobotSpatialIndex spatialIndex = new RobotSpatialIndex();
+    //Relinks robots by distance as they move, if enabled
+    private transient NeighborDiscovery discovery;
     private LatticeRobot selectedRobot = null;
     private boolean dragging = false;
     private double offsetX;
     private double offsetY;
 
+    //Simulation rendered by this panel, pose i belongs to the robot in store slot i
+    private static final int REFRESH_MILLIS = 16;
+    private transient SimulationEngine simulation;
+    private Timer refreshTimer;
+    private long renderedTick = -1;
+
     public RobotPanel() {
-        robots = new LinkedHashMap<Integer, LatticeRobot>();
         this.setPreferredSize(new java.awt.Dimension(900, 900));
         this.setBackground(java.awt.Color.WHITE);
         this.setFocusable(true);
@@ -42,15 +49,8 @@ public class RobotPanel extends JPanel {
             @Override
             public void mousePressed(MouseEvent e) {
 
-                LatticeRobot hitRobot = null;
-
-                //Check if a robot was clicked
-                for (LatticeRobot robot : robots.values()) {
-                    if (robot.contains(e.getX(), e.getY())) {
-                        hitRobot = robot;
-                        break;
-                    }
-                }
+                //Check if a robot was clicked, the one drawn on top wins
+                LatticeRobot hitRobot = spatialIndex.topmostAt(e.getX(), e.getY());
                 //If a robot was clicked, prepare for dragging
                 if (hitRobot != null) {
                     dragging = true;
@@ -58,9 +58,9 @@ public class RobotPanel extends JPanel {
                     offsetX = e.getX() - hitRobot.getPosition().x;
                     offsetY = e.getY() - hitRobot.getPosition().y;
 
-                    // Bring to front by re-inserting into the map
-                    robots.remove(hitRobot.getAuthorityId());
-                    robots.put(hitRobot.getAuthorityId(), hitRobot);
+                    // Bring to front in the paint and hit-test order
+                    store.bringToFront(store.slotOf(hitRobot.getAuthorityId()));
+                    spatialIndex.bringToFront(hitRobot);
 
                     selectedRobot = hitRobot;
                     repaint();
@@ -87,7 +87,20 @@ public class RobotPanel extends JPanel {
                 if(selectedRobot != null && dragging) {
                     double nx = e.getX() - offsetX;
                     double ny = e.getY() - offsetY;
-                    selectedRobot.setPosition(new OrientedPoint(nx, ny, selectedRobot.getPosition().getOrientation()));
+                    double orientation = selectedRobot.getPosition().getOrientation();
+                    selectedRobot.setPosition(nx, ny, orientation);
+                    if(discovery != null) {
+                        discovery.update();
+                    }
+                    //Let the simulation know, it owns the poses while attached
+                    if(simulation != null) {
+                        int index = store.slotOf(selectedRobot.getAuthorityId());
+                        simulation.submit(poses -> {
+                            if(index < poses.size()) {
+                                poses.set(index, nx, ny, orientation);
+                            }
+                        });
+                    }
                     repaint();
                 }
             }
@@ -128,21 +141,48 @@ public class RobotPanel extends JPanel {
         });
     }
 
-    protected void paintComponent(java.awt.Graphics g) {
-        super.paintComponent(g);
-        Graphics2D g2d = (Graphics2D) g;
-        for(LatticeRobot robot : robots.values()) {
-            //Draw edges
-            robot.getEdges().forEach(edge -> {
-                //Retrieve the 'to' robot
-                LatticeRobot to = robots.get(edge.getToId());
-                //Draw the edge
-                edge.draw(g2d, robot, to);
-            });
+    //Collects the poses of all robots by store slot, e.g. as the initial state of a simulation
+    public PoseBuffer capturePoses() {
+        return store.capturePoses(new PoseBuffer(Math.max(1, store.size())));
+    }
+
+    //Renders the latest snapshot of a simulation at display rate. Pose i belongs to the
+    //robot in store slot i, see capturePoses(). Loading other robots detaches it
+    public void attachSimulation(SimulationEngine simulation) {
+        this.simulation = simulation;
+        this.renderedTick = -1;
+        if(refreshTimer == null) {
+            refreshTimer = new Timer(REFRESH_MILLIS, e -> refreshFromSimulation());
+            refreshTimer.start();
         }
-        for(LatticeRobot robot : robots.values()) {
-            robot.draw(g2d);
+    }
+
+    public void detachSimulation() {
+        if(refreshTimer != null) {
+            refreshTimer.stop();
+            refreshTimer = null;
+        }
+        simulation = null;
+    }
+
+    private void refreshFromSimulation() {
+        SimulationEngine.Snapshot snapshot = simulation.latestSnapshot();
+        if(snapshot.getTick() == renderedTick) {
+            return;
         }
+        renderedTick = snapshot.getTick();
+        //Keep the dragged robot under the mouse until the simulation caught up
+        int skip = selectedRobot == null ? -1 : store.slotOf(selectedRobot.getAuthorityId());
+        store.applyPoses(snapshot.getPoses(), skip);
+        if(discovery != null) {
+            discovery.update();
+        }
+        repaint();
+    }
+
+    protected void paintComponent(java.awt.Graphics g) {
+        super.paintComponent(g);
+        SwarmPainter.paint((Graphics2D) g, store);
     }
 
     public boolean savePanelImageAsPNG() {
@@ -172,7 +212,30 @@ public class RobotPanel extends JPanel {
         }   
     }
 
-    public static boolean exportDatatoJSON() {
+    public SwarmStore getStore() {
+        return store;
+    }
+
+    public SwarmConnectivity getConnectivity() {
+        return connectivity;
+    }
+
+    public RobotSpatialIndex getSpatialIndex() {
+        return spatialIndex;
+    }
+
+    //Links all robots within the radius of each other and keeps the links following the
+    //robots as they are dragged or simulated. Replaces the links between current robots
+    public void enableNeighborDiscovery(double radius) {
+        discovery = new NeighborDiscovery(radius);
+        discovery.rebuild(store.robotsInDepthOrder());
+    }
+
+    public void disableNeighborDiscovery() {
+        discovery = null;
+    }
+
+    public boolean exportDatatoJSON() {
 
         //Create output directory
         File outputDir = new File("output/robot_data");
@@ -183,92 +246,7 @@ public class RobotPanel extends JPanel {
         File jsonFile = new File(outputDir, "robot_data.json");
 
         try {
-            //Create Jackson ObjectMapper
-            ObjectMapper mapper = new ObjectMapper();
-
-            //Create root JSON object (create file base)
-            ObjectNode rootNode = mapper.createObjectNode();
-
-            /*****************************
-                1. Write robots into file
-            ******************************/
-
-            //Create array to store robots in
-            ArrayNode robotsArray = mapper.createArrayNode();
-            
-            //Create a node for each robot's data and add to array
-            for(LatticeRobot robot : robots.values()) {
-                ObjectNode robotNode = mapper.createObjectNode();
-                OrientedPoint robotPose = robot.getPosition();
-
-                //Add data to node for single robot
-                robotNode.put("id", robot.getAuthorityId());
-                robotNode.put("x", robotPose.x);
-                robotNode.put("y", robotPose.y);
-                robotNode.put("orientation", robotPose.getOrientation());
-
-                //Add robot to robotsArray
-                robotsArray.add(robotNode);
-            }
-
-            //Add list of robots to JSON file
-            rootNode.set("robots", robotsArray);
-
-
-            /*****************************
-                2. Write edge links
-            ******************************/
-          
-            //Create array to stores edges in
-            ArrayNode edgesArray = mapper.createArrayNode();
-            
-            //Create a node for each edge to store data
-            for(LatticeRobot robot : robots.values()) {
-                
-                //Create a node for each edge's data
-                for(Edge edge : robot.getEdges()) {
-                    //Avoid duplicate edges by only writing when fromID < toID
-                    if(edge.getFromId() < edge.getToId()) {
-
-                        //Add data to node
-                        ObjectNode edgeNode = mapper.createObjectNode();
-                        edgeNode.put("fromId", edge.getFromId());
-                        edgeNode.put("toId", edge.getToId());
-
-                        //Add edge node to edge array
-                        edgesArray.add(edgeNode);
-                    }
-                }
-            }
-
-            //Add list of edges to JSON file
-            rootNode.set("edges", edgesArray);
-
-            /*****************************
-                3. Write trust levels
-            ******************************/
-
-            //Create array to store trust levels in
-            ArrayNode trustArray = mapper.createArrayNode();
-
-            //Create a node for each robot's trust level
-            for(LatticeRobot robot : robots.values()) {
-                ObjectNode trustNode = mapper.createObjectNode();
-
-                //Add data to node
-                trustNode.put("id", robot.getAuthorityId());
-                trustNode.put("trustLevel", robot.getTrustLevel().toString());
-
-                //Add trust node to trust array
-                trustArray.add(trustNode);
-            }
-
-            //Add list of trust levels to JSON file
-            rootNode.set("trust_levels", trustArray);
-
-            //Write JSON data to file
-            mapper.writerWithDefaultPrettyPrinter().writeValue(jsonFile, rootNode);
-        
+            SwarmJson.write(jsonFile, store.robotsInDepthOrder());
             return true;
 
         } catch(IOException e) {
@@ -278,9 +256,12 @@ public class RobotPanel extends JPanel {
         }
     }
 
-    public static boolean readDataFromJSON() {
-        //clear existing robots
-        robots.clear();
+    public boolean readDataFromJSON() {
+        //clear existing robots, their slots no longer match a simulation
+        detachSimulation();
+        store.clear();
+        connectivity.clear();
+        spatialIndex.clear();
 
         //Create file path for input file
         File inputDir = new File("output/robot_data");
@@ -297,85 +278,16 @@ public class RobotPanel extends JPanel {
         }
 
         try {
-            //create Jackson ObjectMapper
-            ObjectMapper mapper = new ObjectMapper();
-
-            //Read JSON file
-            JsonNode rootNode = mapper.readTree(jsonFile);
-
-            /*****************************
-                1. Read in robot data
-            ******************************/
-
-            //Access Robot array for robot data
-            JsonNode robotsNode = rootNode.get("robots");
-
-            //If array contains data, read and create robots
-            if(robotsNode != null && robotsNode.isArray()) {
-
-                //Create individual robots from objectNode informations
-                for(JsonNode robotNode : robotsNode) {
-
-                    //Retrieve data
-                    int robotId = robotNode.get("id").asInt();
-                    double x = robotNode.get("x").asDouble();
-                    double y = robotNode.get("y").asDouble();
-                    double orientation = robotNode.get("orientation").asDouble();
-
-                    //Create robot and add to panel map
-                    OrientedPoint robotPosition = new OrientedPoint(x, y, orientation);
-                    LatticeRobot importedRobot = new LatticeRobot(robotId, robotPosition);
-                    robots.put(robotId, importedRobot);
-                }
-            }
-
-            /*****************************
-                2. Read in edge data
-            ******************************/
-
-            //Access Edge array for edge data
-            JsonNode edgesNode = rootNode.get("edges");
-
-            //If array contains data, read and create edge
-            if(edgesNode != null && edgesNode.isArray()){
-                for(JsonNode edgeNode : edgesNode) {
-                    //Retrieve data
-                    int fromId = edgeNode.get("fromId").asInt();
-                    int toId = edgeNode.get("toId").asInt();
-
-                    //Create edge between robots
-                    LatticeRobot fromRobot = robots.get(fromId);
-                    LatticeRobot toRobot = robots.get(toId);
-
-                    if(fromRobot != null && toRobot != null) {
-                        fromRobot.addNeighbor(toRobot);
-                    }
-                }
+            Map<Integer, LatticeRobot> robots = new LinkedHashMap<>();
+            SwarmJson.read(jsonFile, robots, connectivity);
+            //Store and index in file order, so later robots are on top
+            for(LatticeRobot robot : robots.values()) {
+                store.add(robot);
+                spatialIndex.add(robot);
             }
-
-            /*****************************
-                3. Read in trust data
-            ******************************/
-
-            //Access trust array for trust data
-            JsonNode trustNode = rootNode.get("trust_levels");
-            
-            //If array contains data, read and assign trust levels
-            if(trustNode != null && trustNode.isArray()){
-                for(JsonNode trustInfo : trustNode) {
-                    //retrieve data
-                    int robotId = trustInfo.get("id").asInt();
-                    String trustLevelStr = trustInfo.get("trustLevel").asText();
-                    TrustLevel trust = TrustLevel.valueOf(trustLevelStr);
-
-                    //Assign trust level
-                    LatticeRobot robot = robots.get(robotId);
-                    if(robot != null) {
-                        robot.setTrustLevel(trust);
-                    }
-                }
+            if(discovery != null) {
+                discovery.rebuild(robots.values());
             }
-
             return true;
 
         } catch(IOException e) {
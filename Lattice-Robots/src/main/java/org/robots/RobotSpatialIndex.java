@@ -0,0 +1,261 @@
+package org.robots;
+
+import java.awt.geom.Rectangle2D;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+//Uniform grid over robot centers for hit-testing and region queries.
+//Cells are as wide as a robot, so a robot's shape never reaches further than one cell from
+//the cell holding its center and a point query only looks at the 3x3 cells around it.
+//Registered robots report every setPosition and applyTransform call, which moves them
+//between cells in constant time; changing the point returned by getPosition() directly
+//goes unnoticed and leaves the robot in its old cell. Every robot also carries a stacking order: robots added or brought to the
+//front later are on top, matching the paint order of the panel, and all queries return
+//the topmost robot first.
+public class RobotSpatialIndex {
+
+    private static final Comparator<Entry> TOPMOST_FIRST = (a, b) -> Long.compare(b.z, a.z);
+
+    private static final class Entry {
+        final LatticeRobot robot;
+        long cell;
+        //Position of the entry in its cell's list
+        int slot;
+        long z;
+
+        Entry(LatticeRobot robot) {
+            this.robot = robot;
+        }
+    }
+
+    private final double cellSize;
+    //Authority id -> entry
+    private final Map<Integer, Entry> entries = new HashMap<>();
+    //Packed cell coordinates -> robots whose center lies in the cell
+    private final Map<Long, List<Entry>> cells = new HashMap<>();
+    private long nextZ;
+
+    public RobotSpatialIndex() {
+        this(LatticeRobot.ROBOT_SIZE);
+    }
+
+    //The cell size must be at least the distance from a robot's center to the farthest
+    //point of its shape
+    public RobotSpatialIndex(double cellSize) {
+        if(!(cellSize > 0)) {
+            throw new IllegalArgumentException("The cell size must be positive but was " + cellSize + ".");
+        }
+        this.cellSize = cellSize;
+    }
+
+    //Adds a robot on top of all others, or brings it to the front if it is already indexed
+    public void add(LatticeRobot robot) {
+        Entry entry = entries.get(robot.getAuthorityId());
+        if(entry != null) {
+            entry.z = nextZ++;
+            return;
+        }
+        entry = new Entry(robot);
+        entry.z = nextZ++;
+        entry.cell = cellOf(robot.getPosition().x, robot.getPosition().y);
+        insert(entry);
+        entries.put(robot.getAuthorityId(), entry);
+        robot.setSpatialIndex(this);
+    }
+
+    public void remove(LatticeRobot robot) {
+        Entry entry = entries.remove(robot.getAuthorityId());
+        if(entry != null) {
+            detach(entry);
+            robot.setSpatialIndex(null);
+        }
+    }
+
+    public void clear() {
+        for(Entry entry : entries.values()) {
+            entry.robot.setSpatialIndex(null);
+        }
+        entries.clear();
+        cells.clear();
+        nextZ = 0;
+    }
+
+    public int size() {
+        return entries.size();
+    }
+
+    //Puts the robot on top of all others
+    public void bringToFront(LatticeRobot robot) {
+        Entry entry = entries.get(robot.getAuthorityId());
+        if(entry != null) {
+            entry.z = nextZ++;
+        }
+    }
+
+    void moved(LatticeRobot robot) {
+        Entry entry = entries.get(robot.getAuthorityId());
+        if(entry == null) {
+            return;
+        }
+        long cell = cellOf(robot.getPosition().x, robot.getPosition().y);
+        if(cell != entry.cell) {
+            detach(entry);
+            entry.cell = cell;
+            insert(entry);
+        }
+    }
+
+    //Returns the topmost robot whose shape contains the point, or null
+    public LatticeRobot topmostAt(int x, int y) {
+        Entry topmost = null;
+        int cx = cellCoordinate(x);
+        int cy = cellCoordinate(y);
+        for(int i = cx - 1; i <= cx + 1; i++) {
+            for(int j = cy - 1; j <= cy + 1; j++) {
+                List<Entry> cell = cells.get(key(i, j));
+                if(cell == null) {
+                    continue;
+                }
+                for(Entry entry : cell) {
+                    if((topmost == null || entry.z > topmost.z) && entry.robot.contains(x, y)) {
+                        topmost = entry;
+                    }
+                }
+            }
+        }
+        return topmost == null ? null : topmost.robot;
+    }
+
+    //Returns all robots whose shape contains the point, topmost first
+    public List<LatticeRobot> robotsAt(int x, int y) {
+        List<Entry> hits = new ArrayList<>();
+        int cx = cellCoordinate(x);
+        int cy = cellCoordinate(y);
+        for(int i = cx - 1; i <= cx + 1; i++) {
+            for(int j = cy - 1; j <= cy + 1; j++) {
+                List<Entry> cell = cells.get(key(i, j));
+                if(cell == null) {
+                    continue;
+                }
+                for(Entry entry : cell) {
+                    if(entry.robot.contains(x, y)) {
+                        hits.add(entry);
+                    }
+                }
+            }
+        }
+        return topmostFirst(hits);
+    }
+
+    //Returns all robots whose shape intersects the rectangle, e.g. a rubber-band
+    //selection, topmost first
+    public List<LatticeRobot> robotsIn(Rectangle2D rectangle) {
+        List<Entry> hits = new ArrayList<>();
+        int minX = cellCoordinate(rectangle.getMinX()) - 1;
+        int maxX = cellCoordinate(rectangle.getMaxX()) + 1;
+        int minY = cellCoordinate(rectangle.getMinY()) - 1;
+        int maxY = cellCoordinate(rectangle.getMaxY()) + 1;
+        if((long) (maxX - minX + 1) * (maxY - minY + 1) > cells.size()) {
+            //Covers more cells than are occupied, check the occupied ones instead
+            for(List<Entry> cell : cells.values()) {
+                collectIntersecting(cell, rectangle, hits);
+            }
+        } else {
+            for(int i = minX; i <= maxX; i++) {
+                for(int j = minY; j <= maxY; j++) {
+                    List<Entry> cell = cells.get(key(i, j));
+                    if(cell != null) {
+                        collectIntersecting(cell, rectangle, hits);
+                    }
+                }
+            }
+        }
+        return topmostFirst(hits);
+    }
+
+    //Returns all robots whose center lies within the radius of the point, topmost first
+    public List<LatticeRobot> robotsWithin(double x, double y, double radius) {
+        List<Entry> hits = new ArrayList<>();
+        double radiusSquared = radius * radius;
+        int minX = cellCoordinate(x - radius);
+        int maxX = cellCoordinate(x + radius);
+        int minY = cellCoordinate(y - radius);
+        int maxY = cellCoordinate(y + radius);
+        if((long) (maxX - minX + 1) * (maxY - minY + 1) > cells.size()) {
+            for(List<Entry> cell : cells.values()) {
+                collectWithin(cell, x, y, radiusSquared, hits);
+            }
+        } else {
+            for(int i = minX; i <= maxX; i++) {
+                for(int j = minY; j <= maxY; j++) {
+                    List<Entry> cell = cells.get(key(i, j));
+                    if(cell != null) {
+                        collectWithin(cell, x, y, radiusSquared, hits);
+                    }
+                }
+            }
+        }
+        return topmostFirst(hits);
+    }
+
+    private static void collectIntersecting(List<Entry> cell, Rectangle2D rectangle, List<Entry> hits) {
+        for(Entry entry : cell) {
+            if(entry.robot.intersects(rectangle)) {
+                hits.add(entry);
+            }
+        }
+    }
+
+    private static void collectWithin(List<Entry> cell, double x, double y, double radiusSquared, List<Entry> hits) {
+        for(Entry entry : cell) {
+            double dx = entry.robot.getPosition().x - x;
+            double dy = entry.robot.getPosition().y - y;
+            if(dx * dx + dy * dy <= radiusSquared) {
+                hits.add(entry);
+            }
+        }
+    }
+
+    private static List<LatticeRobot> topmostFirst(List<Entry> hits) {
+        hits.sort(TOPMOST_FIRST);
+        List<LatticeRobot> robots = new ArrayList<>(hits.size());
+        for(Entry entry : hits) {
+            robots.add(entry.robot);
+        }
+        return robots;
+    }
+
+    private void insert(Entry entry) {
+        List<Entry> cell = cells.computeIfAbsent(entry.cell, key -> new ArrayList<>());
+        entry.slot = cell.size();
+        cell.add(entry);
+    }
+
+    //Removes the entry from its cell by moving the cell's last entry into its slot
+    private void detach(Entry entry) {
+        List<Entry> cell = cells.get(entry.cell);
+        Entry last = cell.remove(cell.size() - 1);
+        if(last != entry) {
+            cell.set(entry.slot, last);
+            last.slot = entry.slot;
+        }
+        if(cell.isEmpty()) {
+            cells.remove(entry.cell);
+        }
+    }
+
+    private int cellCoordinate(double coordinate) {
+        return (int) Math.floor(coordinate / cellSize);
+    }
+
+    private long cellOf(double x, double y) {
+        return key(cellCoordinate(x), cellCoordinate(y));
+    }
+
+    private static long key(int cx, int cy) {
+        return ((long) cx << 32) | (cy & 0xffffffffL);
+    }
+}
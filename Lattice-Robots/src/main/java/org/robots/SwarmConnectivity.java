@@ -0,0 +1,109 @@
+package org.robots;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+import org.graphs.UnionFind;
+
+/**
+ * Tracks which robots of a swarm can reach each other over their links.
+ * Registered robots report every addNeighbor call, which is merged into a union-find
+ * structure in near-constant time. Removed links only mark the structure stale, it is
+ * then rebuilt from the robots' edges in one pass on the next query.
+ */
+public class SwarmConnectivity {
+
+    //Authority id -> union-find element
+    private final Map<Integer, Integer> slots;
+    private final List<LatticeRobot> robots;
+    private final UnionFind unionFind;
+    private boolean stale;
+
+    public SwarmConnectivity() {
+        this.slots = new HashMap<>();
+        this.robots = new ArrayList<>();
+        this.unionFind = new UnionFind();
+    }
+
+    public void addRobot(LatticeRobot robot) {
+        if(slots.containsKey(robot.getAuthorityId())) {
+            return;
+        }
+        slots.put(robot.getAuthorityId(), robots.size());
+        robots.add(robot);
+        robot.setConnectivity(this);
+
+        if(!stale) {
+            unionFind.add();
+            //Pick up links the robot already had before joining
+            NeighborSet neighbors = robot.getNeighbors();
+            for(int c = neighbors.first(); c != NeighborSet.END; c = neighbors.next(c)) {
+                Integer other = slots.get(neighbors.get(c));
+                if(other != null) {
+                    unionFind.union(slots.get(robot.getAuthorityId()), other);
+                }
+            }
+        }
+    }
+
+    public void clear() {
+        for(LatticeRobot robot : robots) {
+            robot.setConnectivity(null);
+        }
+        slots.clear();
+        robots.clear();
+        unionFind.reset(0);
+        stale = false;
+    }
+
+    void linked(LatticeRobot robot, LatticeRobot neighbor) {
+        addRobot(robot);
+        addRobot(neighbor);
+        if(!stale) {
+            unionFind.union(slots.get(robot.getAuthorityId()), slots.get(neighbor.getAuthorityId()));
+        }
+    }
+
+    void unlinked() {
+        stale = true;
+    }
+
+    public boolean connected(int authorityId1, int authorityId2) {
+        Integer slot1 = slots.get(authorityId1);
+        Integer slot2 = slots.get(authorityId2);
+        if(slot1 == null || slot2 == null) {
+            return authorityId1 == authorityId2;
+        }
+        rebuildIfStale();
+        return unionFind.connected(slot1, slot2);
+    }
+
+    public int componentCount() {
+        rebuildIfStale();
+        return unionFind.componentCount();
+    }
+
+    //True when every registered robot can reach every other one
+    public boolean isSingleIsland() {
+        return componentCount() <= 1;
+    }
+
+    private void rebuildIfStale() {
+        if(!stale) {
+            return;
+        }
+        unionFind.reset(robots.size());
+        for(int i = 0; i < robots.size(); i++) {
+            NeighborSet neighbors = robots.get(i).getNeighbors();
+            for(int c = neighbors.first(); c != NeighborSet.END; c = neighbors.next(c)) {
+                Integer other = slots.get(neighbors.get(c));
+                if(other != null) {
+                    unionFind.union(i, other);
+                }
+            }
+        }
+        stale = false;
+    }
+}
@@ -0,0 +1,202 @@
+package org.robots;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.node.ArrayNode;
+import com.fasterxml.jackson.databind.node.ObjectNode;
+
+import org.transformations.OrientedPoint;
+
+import java.io.File;
+import java.io.IOException;
+import java.util.Collection;
+import java.util.Map;
+
+//Reads and writes swarm state (robots, edges and trust levels) as JSON, shared by the
+//panel's import/export keys and the headless renderer
+public final class SwarmJson {
+
+    private SwarmJson() {
+    }
+
+    public static void write(File jsonFile, Collection<LatticeRobot> robots) throws IOException {
+        //Create Jackson ObjectMapper
+        ObjectMapper mapper = new ObjectMapper();
+
+        //Create root JSON object (create file base)
+        ObjectNode rootNode = mapper.createObjectNode();
+
+        /*****************************
+            1. Write robots into file
+        ******************************/
+
+        //Create array to store robots in
+        ArrayNode robotsArray = mapper.createArrayNode();
+        
+        //Create a node for each robot's data and add to array
+        for(LatticeRobot robot : robots) {
+            ObjectNode robotNode = mapper.createObjectNode();
+            OrientedPoint robotPose = robot.getPosition();
+
+            //Add data to node for single robot
+            robotNode.put("id", robot.getAuthorityId());
+            robotNode.put("x", robotPose.x);
+            robotNode.put("y", robotPose.y);
+            robotNode.put("orientation", robotPose.getOrientation());
+
+            //Add robot to robotsArray
+            robotsArray.add(robotNode);
+        }
+
+        //Add list of robots to JSON file
+        rootNode.set("robots", robotsArray);
+
+
+        /*****************************
+            2. Write edge links
+        ******************************/
+      
+        //Create array to stores edges in
+        ArrayNode edgesArray = mapper.createArrayNode();
+        
+        //Create a node for each edge to store data
+        for(LatticeRobot robot : robots) {
+            
+            //Create a node for each edge's data
+            NeighborSet neighbors = robot.getNeighbors();
+            for(int c = neighbors.first(); c != NeighborSet.END; c = neighbors.next(c)) {
+                int toId = neighbors.get(c);
+                //Avoid duplicate edges by only writing when fromID < toID
+                if(robot.getAuthorityId() < toId) {
+
+                    //Add data to node
+                    ObjectNode edgeNode = mapper.createObjectNode();
+                    edgeNode.put("fromId", robot.getAuthorityId());
+                    edgeNode.put("toId", toId);
+
+                    //Add edge node to edge array
+                    edgesArray.add(edgeNode);
+                }
+            }
+        }
+
+        //Add list of edges to JSON file
+        rootNode.set("edges", edgesArray);
+
+        /*****************************
+            3. Write trust levels
+        ******************************/
+
+        //Create array to store trust levels in
+        ArrayNode trustArray = mapper.createArrayNode();
+
+        //Create a node for each robot's trust level
+        for(LatticeRobot robot : robots) {
+            ObjectNode trustNode = mapper.createObjectNode();
+
+            //Add data to node
+            trustNode.put("id", robot.getAuthorityId());
+            trustNode.put("trustLevel", robot.getTrustLevel().toString());
+
+            //Add trust node to trust array
+            trustArray.add(trustNode);
+        }
+
+        //Add list of trust levels to JSON file
+        rootNode.set("trust_levels", trustArray);
+
+        //Write JSON data to file
+        mapper.writerWithDefaultPrettyPrinter().writeValue(jsonFile, rootNode);
+    }
+
+    //Reads robots into the map, which is not cleared first. The connectivity tracker
+    //may be null
+    public static void read(File jsonFile, Map<Integer, LatticeRobot> robots, SwarmConnectivity connectivity) throws IOException {
+        //create Jackson ObjectMapper
+        ObjectMapper mapper = new ObjectMapper();
+
+        //Read JSON file
+        JsonNode rootNode = mapper.readTree(jsonFile);
+
+        read(rootNode, robots, connectivity);
+    }
+
+    public static void read(JsonNode rootNode, Map<Integer, LatticeRobot> robots, SwarmConnectivity connectivity) {
+
+        /*****************************
+            1. Read in robot data
+        ******************************/
+
+        //Access Robot array for robot data
+        JsonNode robotsNode = rootNode.get("robots");
+
+        //If array contains data, read and create robots
+        if(robotsNode != null && robotsNode.isArray()) {
+
+            //Create individual robots from objectNode informations
+            for(JsonNode robotNode : robotsNode) {
+
+                //Retrieve data
+                int robotId = robotNode.get("id").asInt();
+                double x = robotNode.get("x").asDouble();
+                double y = robotNode.get("y").asDouble();
+                double orientation = robotNode.get("orientation").asDouble();
+
+                //Create robot and add to map
+                OrientedPoint robotPosition = new OrientedPoint(x, y, orientation);
+                LatticeRobot importedRobot = new LatticeRobot(robotId, robotPosition);
+                robots.put(robotId, importedRobot);
+                if(connectivity != null) {
+                    connectivity.addRobot(importedRobot);
+                }
+            }
+        }
+
+        /*****************************
+            2. Read in edge data
+        ******************************/
+
+        //Access Edge array for edge data
+        JsonNode edgesNode = rootNode.get("edges");
+
+        //If array contains data, read and create edge
+        if(edgesNode != null && edgesNode.isArray()){
+            for(JsonNode edgeNode : edgesNode) {
+                //Retrieve data
+                int fromId = edgeNode.get("fromId").asInt();
+                int toId = edgeNode.get("toId").asInt();
+
+                //Create edge between robots
+                LatticeRobot fromRobot = robots.get(fromId);
+                LatticeRobot toRobot = robots.get(toId);
+
+                if(fromRobot != null && toRobot != null) {
+                    fromRobot.addNeighbor(toRobot);
+                }
+            }
+        }
+
+        /*****************************
+            3. Read in trust data
+        ******************************/
+
+        //Access trust array for trust data
+        JsonNode trustNode = rootNode.get("trust_levels");
+        
+        //If array contains data, read and assign trust levels
+        if(trustNode != null && trustNode.isArray()){
+            for(JsonNode trustInfo : trustNode) {
+                //retrieve data
+                int robotId = trustInfo.get("id").asInt();
+                String trustLevelStr = trustInfo.get("trustLevel").asText();
+                TrustLevel trust = TrustLevel.valueOf(trustLevelStr);
+
+                //Assign trust level
+                LatticeRobot robot = robots.get(robotId);
+                if(robot != null) {
+                    robot.setTrustLevel(trust);
+                }
+            }
+        }
+    }
+}
@@ -0,0 +1,47 @@
+package org.robots;
+
+import java.awt.Graphics2D;
+import java.util.Map;
+
+//Draws a swarm, shared by the panel and the headless renderer
+final class SwarmPainter {
+
+    private SwarmPainter() {
+    }
+
+    //Draws all edges first so that robots are painted on top, in map order
+    static void paint(Graphics2D g2d, Map<Integer, LatticeRobot> robots) {
+        for(LatticeRobot robot : robots.values()) {
+            //Draw edges
+            NeighborSet neighbors = robot.getNeighbors();
+            for(int c = neighbors.first(); c != NeighborSet.END; c = neighbors.next(c)) {
+                //Retrieve the 'to' robot
+                LatticeRobot to = robots.get(neighbors.get(c));
+                if(to != null) {
+                    //Draw the edge
+                    Edge.drawLink(g2d, robot, to);
+                }
+            }
+        }
+        for(LatticeRobot robot : robots.values()) {
+            robot.draw(g2d);
+        }
+    }
+
+    //Same as above for a store, robots are painted bottom to top of its stacking order
+    static void paint(Graphics2D g2d, SwarmStore store) {
+        for(int slot = 0; slot < store.size(); slot++) {
+            LatticeRobot robot = store.robotAt(slot);
+            NeighborSet neighbors = robot.getNeighbors();
+            for(int c = neighbors.first(); c != NeighborSet.END; c = neighbors.next(c)) {
+                LatticeRobot to = store.get(neighbors.get(c));
+                if(to != null) {
+                    Edge.drawLink(g2d, robot, to);
+                }
+            }
+        }
+        for(int z = 0; z < store.size(); z++) {
+            store.robotAt(store.slotAtDepth(z)).draw(g2d);
+        }
+    }
+}
@@ -0,0 +1,295 @@
+package org.robots;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+import org.transformations.OrientedPoint;
+import org.transformations.PoseBuffer;
+
+//The robots of one swarm by slot: an int-to-int hash index from ids to dense slots, plus
+//the stacking order as a separate permutation of the slots, so bringing a robot to the
+//front moves one int instead of re-inserting map entries. The robots keep their own pose
+//and trust level; the store only orders them and maps poses to slots for the simulation.
+//Every panel or simulation owns its own store, so several can share one JVM.
+public class SwarmStore {
+
+    private int[] ids;
+    private LatticeRobot[] robots;
+    private int size;
+
+    //Slots from bottom to top, and the position of every slot in that order
+    private int[] zOrder;
+    private int[] zIndex;
+
+    private final SlotIndex slots = new SlotIndex();
+
+    public SwarmStore() {
+        this(16);
+    }
+
+    public SwarmStore(int capacity) {
+        capacity = Math.max(1, capacity);
+        ids = new int[capacity];
+        robots = new LatticeRobot[capacity];
+        zOrder = new int[capacity];
+        zIndex = new int[capacity];
+    }
+
+    //Adds a robot on top of all others and returns its slot
+    public int add(LatticeRobot robot) {
+        int id = robot.getAuthorityId();
+        if(slots.get(id) >= 0) {
+            throw new IllegalArgumentException("Robot " + id + " is already in the swarm.");
+        }
+        ensureCapacity(size + 1);
+        int slot = size++;
+        ids[slot] = id;
+        robots[slot] = robot;
+        zOrder[slot] = slot;
+        zIndex[slot] = slot;
+        slots.put(id, slot);
+        return slot;
+    }
+
+    //Removes a robot, the last slot moves into the freed one
+    public void remove(int id) {
+        int slot = slots.get(id);
+        if(slot < 0) {
+            return;
+        }
+        slots.remove(id);
+
+        //Close the gap in the stacking order
+        int z = zIndex[slot];
+        System.arraycopy(zOrder, z + 1, zOrder, z, size - z - 1);
+        size--;
+        for(int i = z; i < size; i++) {
+            zIndex[zOrder[i]] = i;
+        }
+
+        int last = size;
+        if(slot != last) {
+            ids[slot] = ids[last];
+            robots[slot] = robots[last];
+            zIndex[slot] = zIndex[last];
+            zOrder[zIndex[slot]] = slot;
+            slots.put(ids[slot], slot);
+        }
+        robots[last] = null;
+    }
+
+    public void clear() {
+        Arrays.fill(robots, 0, size, null);
+        slots.clear();
+        size = 0;
+    }
+
+    public int size() {
+        return size;
+    }
+
+    //Returns the slot of the robot with the id, or -1
+    public int slotOf(int id) {
+        return slots.get(id);
+    }
+
+    //Returns the robot with the id, or null
+    public LatticeRobot get(int id) {
+        int slot = slots.get(id);
+        return slot < 0 ? null : robots[slot];
+    }
+
+    public LatticeRobot robotAt(int slot) {
+        checkSlot(slot);
+        return robots[slot];
+    }
+
+    public int getId(int slot) {
+        checkSlot(slot);
+        return ids[slot];
+    }
+
+    //Returns the slot at a position of the stacking order, 0 is the bottom robot.
+    //Walk all robots bottom to top without allocating:
+    //  for(int z = 0; z < store.size(); z++) { int slot = store.slotAtDepth(z); }
+    public int slotAtDepth(int z) {
+        if(z < 0 || z >= size) {
+            throw new IndexOutOfBoundsException("Depth " + z + " is out of bounds for size " + size + ".");
+        }
+        return zOrder[z];
+    }
+
+    //Returns the position of a slot in the stacking order
+    public int depthOf(int slot) {
+        checkSlot(slot);
+        return zIndex[slot];
+    }
+
+    //Puts the robot in the slot on top of all others
+    public void bringToFront(int slot) {
+        checkSlot(slot);
+        int z = zIndex[slot];
+        System.arraycopy(zOrder, z + 1, zOrder, z, size - z - 1);
+        zOrder[size - 1] = slot;
+        for(int i = z; i < size; i++) {
+            zIndex[zOrder[i]] = i;
+        }
+    }
+
+    //Returns the robots bottom to top, e.g. for export
+    public List<LatticeRobot> robotsInDepthOrder() {
+        List<LatticeRobot> ordered = new ArrayList<>(size);
+        for(int z = 0; z < size; z++) {
+            ordered.add(robots[zOrder[z]]);
+        }
+        return ordered;
+    }
+
+    //Copies the poses into the buffer, pose i is the robot in slot i
+    public PoseBuffer capturePoses(PoseBuffer poses) {
+        poses.clear();
+        poses.ensureCapacity(size);
+        for(int i = 0; i < size; i++) {
+            OrientedPoint position = robots[i].getPosition();
+            poses.add(position.x, position.y, position.getOrientation());
+        }
+        return poses;
+    }
+
+    //Moves the robots to the poses, pose i belongs to the robot in slot i. The robot in
+    //the skipped slot keeps its pose, -1 skips none
+    public void applyPoses(PoseBuffer poses, int skipSlot) {
+        int count = Math.min(size, poses.size());
+        double[] xs = poses.xs();
+        double[] ys = poses.ys();
+        double[] thetas = poses.thetas();
+        for(int i = 0; i < count; i++) {
+            OrientedPoint position = robots[i].getPosition();
+            if(i != skipSlot && (xs[i] != position.x || ys[i] != position.y || thetas[i] != position.getOrientation())) {
+                //Goes through the robot so that its index and polygon follow
+                robots[i].setPosition(xs[i], ys[i], thetas[i]);
+            }
+        }
+    }
+
+    private void ensureCapacity(int capacity) {
+        if(capacity > ids.length) {
+            int grown = Math.max(capacity, ids.length * 2);
+            ids = Arrays.copyOf(ids, grown);
+            robots = Arrays.copyOf(robots, grown);
+            zOrder = Arrays.copyOf(zOrder, grown);
+            zIndex = Arrays.copyOf(zIndex, grown);
+        }
+    }
+
+    private void checkSlot(int slot) {
+        if(slot < 0 || slot >= size) {
+            throw new IndexOutOfBoundsException("Slot " + slot + " is out of bounds for size " + size + ".");
+        }
+    }
+
+    @Override
+    public String toString() {
+        return "SwarmStore[size: " + size + "]";
+    }
+
+    //Open-addressing map from ids to slots with linear probing; free entries hold slot -1
+    private static final class SlotIndex {
+
+        private int[] keys = new int[16];
+        private int[] values = filled(16);
+        private int size;
+
+        int get(int id) {
+            int mask = keys.length - 1;
+            for(int i = home(id, mask); values[i] >= 0; i = (i + 1) & mask) {
+                if(keys[i] == id) {
+                    return values[i];
+                }
+            }
+            return -1;
+        }
+
+        void put(int id, int slot) {
+            int mask = keys.length - 1;
+            int i = home(id, mask);
+            while(values[i] >= 0) {
+                if(keys[i] == id) {
+                    values[i] = slot;
+                    return;
+                }
+                i = (i + 1) & mask;
+            }
+            keys[i] = id;
+            values[i] = slot;
+            size++;
+            //Keep the table at most half full
+            if(2 * size > keys.length) {
+                rehash(keys.length * 2);
+            }
+        }
+
+        void remove(int id) {
+            int mask = keys.length - 1;
+            int i = home(id, mask);
+            while(keys[i] != id || values[i] < 0) {
+                if(values[i] < 0) {
+                    return;
+                }
+                i = (i + 1) & mask;
+            }
+            //Shift later entries of the probe run back into the gap
+            int j = i;
+            while(true) {
+                j = (j + 1) & mask;
+                if(values[j] < 0) {
+                    break;
+                }
+                int k = home(keys[j], mask);
+                if(i <= j ? (k <= i || k > j) : (k <= i && k > j)) {
+                    keys[i] = keys[j];
+                    values[i] = values[j];
+                    i = j;
+                }
+            }
+            values[i] = -1;
+            size--;
+        }
+
+        void clear() {
+            keys = new int[16];
+            values = filled(16);
+            size = 0;
+        }
+
+        private void rehash(int capacity) {
+            int[] oldKeys = keys;
+            int[] oldValues = values;
+            keys = new int[capacity];
+            values = filled(capacity);
+            int mask = capacity - 1;
+            for(int e = 0; e < oldKeys.length; e++) {
+                if(oldValues[e] >= 0) {
+                    int i = home(oldKeys[e], mask);
+                    while(values[i] >= 0) {
+                        i = (i + 1) & mask;
+                    }
+                    keys[i] = oldKeys[e];
+                    values[i] = oldValues[e];
+                }
+            }
+        }
+
+        private static int[] filled(int capacity) {
+            int[] empty = new int[capacity];
+            Arrays.fill(empty, -1);
+            return empty;
+        }
+
+        private static int home(int id, int mask) {
+            int h = id * 0x9E3779B9;
+            return (h ^ (h >>> 16)) & mask;
+        }
+    }
+}
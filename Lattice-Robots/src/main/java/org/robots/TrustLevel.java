@@ -0,0 +1,7 @@
+package org.robots;
+
+enum TrustLevel {
+    Friendly,
+    Suspected,
+    Hostile
+}
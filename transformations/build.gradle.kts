@@ -36,6 +36,8 @@ java {
 application {
     // Define the main class for the application.
     mainClass.set("org.transformations.Transformation2D")
+    // Enables the vectorized batch transform kernel, which falls back to scalar code without it
+    applicationDefaultJvmArgs = listOf("--add-modules", "jdk.incubator.vector")
 }
 
 
@@ -52,5 +54,6 @@ tasks.jar {
 
 tasks.withType<JavaCompile> {
     modularity.inferModulePath.set(false)
+    options.compilerArgs.addAll(listOf("--add-modules", "jdk.incubator.vector"))
 }
 
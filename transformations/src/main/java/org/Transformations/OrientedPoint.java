@@ -1,6 +1,10 @@
 package org.transformations;
 /**
  * An extension of Point2D.Double that includes an orientation (angle in radians).
+ * Like its superclass the point is mutable, so that poses can be updated in place
+ * without allocating. equals and hashCode follow the current values, so a point must not
+ * be moved while it is a key of a hash collection; owners that move their pose, such as
+ * robots, keep a private copy of the point they are given.
  */
 public class OrientedPoint extends java.awt.geom.Point2D.Double {
     
@@ -25,6 +29,30 @@ public class OrientedPoint extends java.awt.geom.Point2D.Double {
         return Math.toDegrees(orientation);
     }
 
+    public void setOrientation(double orientation) {
+        this.orientation = orientation;
+    }
+
+    /**
+     * Sets position and orientation at once.
+     * @param x The x-coordinate of the point.
+     * @param y The y-coordinate of the point.
+     * @param orientation The orientation in radians.
+     */
+    public void setPose(double x, double y, double orientation) {
+        this.x = x;
+        this.y = y;
+        this.orientation = orientation;
+    }
+
+    /**
+     * Copies position and orientation of another point.
+     * @param other The point to copy.
+     */
+    public void setPose(OrientedPoint other) {
+        setPose(other.x, other.y, other.orientation);
+    }
+
     @Override
     public boolean equals(Object obj) {
         if (this == obj) return true;
@@ -0,0 +1,141 @@
+package org.transformations;
+
+import java.util.Arrays;
+
+/**
+ * Growable structure-of-arrays storage for many poses: the x-coordinates, y-coordinates
+ * and orientations live in three parallel arrays, so a whole swarm can be transformed with
+ * {@link Transformation2D#applyTo(double[], double[], double[], int, int)}
+ * or copied with three array copies.
+ */
+public class PoseBuffer {
+
+    private double[] x;
+    private double[] y;
+    private double[] theta;
+    private int size;
+
+    public PoseBuffer() {
+        this(16);
+    }
+
+    /**
+     * @param capacity The number of poses to reserve space for.
+     */
+    public PoseBuffer(int capacity) {
+        x = new double[capacity];
+        y = new double[capacity];
+        theta = new double[capacity];
+    }
+
+    /**
+     * Appends a pose.
+     * @return The index of the new pose.
+     */
+    public int add(double x, double y, double theta) {
+        ensureCapacity(size + 1);
+        this.x[size] = x;
+        this.y[size] = y;
+        this.theta[size] = theta;
+        return size++;
+    }
+
+    public int add(OrientedPoint pose) {
+        return add(pose.x, pose.y, pose.getOrientation());
+    }
+
+    public void set(int index, double x, double y, double theta) {
+        checkIndex(index);
+        this.x[index] = x;
+        this.y[index] = y;
+        this.theta[index] = theta;
+    }
+
+    public double getX(int index) {
+        checkIndex(index);
+        return x[index];
+    }
+
+    public double getY(int index) {
+        checkIndex(index);
+        return y[index];
+    }
+
+    public double getTheta(int index) {
+        checkIndex(index);
+        return theta[index];
+    }
+
+    /**
+     * Writes the pose at the index into an existing point.
+     */
+    public void copyTo(int index, OrientedPoint point) {
+        checkIndex(index);
+        point.setPose(x[index], y[index], theta[index]);
+    }
+
+    /**
+     * Returns the x-coordinates. Only the first {@link #size()} entries are poses, and the
+     * array is replaced when the buffer grows.
+     */
+    public double[] xs() {
+        return x;
+    }
+
+    /** Returns the y-coordinates, see {@link #xs()}. */
+    public double[] ys() {
+        return y;
+    }
+
+    /** Returns the orientations, see {@link #xs()}. */
+    public double[] thetas() {
+        return theta;
+    }
+
+    public int size() {
+        return size;
+    }
+
+    public void clear() {
+        size = 0;
+    }
+
+    /**
+     * Replaces the contents with a copy of another buffer, reusing the arrays if they are
+     * large enough.
+     */
+    public void copyFrom(PoseBuffer other) {
+        ensureCapacity(other.size);
+        System.arraycopy(other.x, 0, x, 0, other.size);
+        System.arraycopy(other.y, 0, y, 0, other.size);
+        System.arraycopy(other.theta, 0, theta, 0, other.size);
+        size = other.size;
+    }
+
+    public void ensureCapacity(int capacity) {
+        if(capacity > x.length) {
+            int grown = Math.max(capacity, x.length * 2);
+            x = Arrays.copyOf(x, grown);
+            y = Arrays.copyOf(y, grown);
+            theta = Arrays.copyOf(theta, grown);
+        }
+    }
+
+    /**
+     * Applies a transformation to all poses in place, in the world frame.
+     */
+    public void apply(Transformation2D transformation) {
+        transformation.applyTo(x, y, theta, 0, size);
+    }
+
+    private void checkIndex(int index) {
+        if(index < 0 || index >= size) {
+            throw new IndexOutOfBoundsException("Pose " + index + " is out of bounds for size " + size + ".");
+        }
+    }
+
+    @Override
+    public String toString() {
+        return "PoseBuffer[size: " + size + "]";
+    }
+}
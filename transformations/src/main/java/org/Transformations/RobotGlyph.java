@@ -0,0 +1,67 @@
+package org.transformations;
+
+import java.awt.geom.Path2D;
+
+/**
+ * The shape robots are drawn with: an arrow-like quadrilateral with a long nose pointing
+ * along the orientation and a short tail between two side vertices.
+ * The vertices are computed once for size 1 at orientation 0. Callers either scale the
+ * shared shape and place it with an AffineTransform, or rotate the unit vertices with a
+ * single sine/cosine pair per pose.
+ */
+public final class RobotGlyph {
+
+    /** The number of vertices of the glyph. */
+    public static final int VERTEX_COUNT = 4;
+
+    private static final double[] UNIT_X = new double[VERTEX_COUNT];
+    private static final double[] UNIT_Y = new double[VERTEX_COUNT];
+
+    static {
+        //Circumradius of an equilateral triangle with side length 1
+        double r = 1.0 / Math.sqrt(3.0);
+        //Nose, left side, tail and right side
+        double[] radii = {r * 1.20, r, r * 0.1, r};
+        double[] angles = {0.0, 2 * Math.PI / 3.0, Math.PI, 4 * Math.PI / 3.0};
+        for(int i = 0; i < VERTEX_COUNT; i++) {
+            UNIT_X[i] = radii[i] * Math.cos(angles[i]);
+            UNIT_Y[i] = radii[i] * Math.sin(angles[i]);
+        }
+    }
+
+    private RobotGlyph() {
+    }
+
+    /**
+     * Creates the glyph centered at the origin and pointing along the x-axis.
+     * @param size The side length of the triangle the glyph is built from.
+     * @return A new path that can be shared by all robots of this size.
+     */
+    public static Path2D.Double createShape(double size) {
+        Path2D.Double shape = new Path2D.Double();
+        shape.moveTo(UNIT_X[0] * size, UNIT_Y[0] * size);
+        for(int i = 1; i < VERTEX_COUNT; i++) {
+            shape.lineTo(UNIT_X[i] * size, UNIT_Y[i] * size);
+        }
+        shape.closePath();
+        return shape;
+    }
+
+    /**
+     * Computes the vertices of a glyph placed at the given pose, rounded to whole pixels.
+     * @param x The x-coordinate of the center.
+     * @param y The y-coordinate of the center.
+     * @param orientation The orientation in radians.
+     * @param size The side length of the triangle the glyph is built from.
+     * @param xs Receives the x-coordinates, at least {@link #VERTEX_COUNT} long.
+     * @param ys Receives the y-coordinates, at least {@link #VERTEX_COUNT} long.
+     */
+    public static void vertices(double x, double y, double orientation, double size, int[] xs, int[] ys) {
+        double cos = Math.cos(orientation) * size;
+        double sin = Math.sin(orientation) * size;
+        for(int i = 0; i < VERTEX_COUNT; i++) {
+            xs[i] = (int) Math.round(x + cos * UNIT_X[i] - sin * UNIT_Y[i]);
+            ys[i] = (int) Math.round(y + sin * UNIT_X[i] + cos * UNIT_Y[i]);
+        }
+    }
+}
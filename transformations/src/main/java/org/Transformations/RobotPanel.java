@@ -4,11 +4,20 @@ import java.awt.Dimension;
 import java.awt.Graphics2D;
 import java.util.ArrayList;
 import java.util.List;
+import javax.swing.Timer;
 
 public class RobotPanel extends javax.swing.JPanel {
 
+    /** Refresh period when rendering a running simulation, about 60 frames per second. */
+    private static final int REFRESH_MILLIS = 16;
+
     private List<Robot> robots;
 
+    /** The simulation rendered by this panel, if any, and the tick last rendered. */
+    private transient SimulationEngine simulation;
+    private Timer refreshTimer;
+    private long renderedTick = -1;
+
     public RobotPanel() {
         robots = new ArrayList<>();
         this.setPreferredSize(new Dimension(300, 300));
@@ -18,6 +27,45 @@ public class RobotPanel extends javax.swing.JPanel {
         robots.add(robot);
     }
 
+    /**
+     * Renders the latest snapshot of a simulation at display rate. Pose i of the simulation
+     * is shown by the i-th robot of this panel.
+     * @param simulation The simulation to follow.
+     */
+    public void attachSimulation(SimulationEngine simulation) {
+        this.simulation = simulation;
+        this.renderedTick = -1;
+        if(refreshTimer == null) {
+            refreshTimer = new Timer(REFRESH_MILLIS, e -> refreshFromSimulation());
+            refreshTimer.start();
+        }
+    }
+
+    /**
+     * Stops following the simulation, the robots keep their last rendered poses.
+     */
+    public void detachSimulation() {
+        if(refreshTimer != null) {
+            refreshTimer.stop();
+            refreshTimer = null;
+        }
+        simulation = null;
+    }
+
+    private void refreshFromSimulation() {
+        SimulationEngine.Snapshot snapshot = simulation.latestSnapshot();
+        if(snapshot.getTick() == renderedTick) {
+            return;
+        }
+        renderedTick = snapshot.getTick();
+        PoseBuffer poses = snapshot.getPoses();
+        int count = Math.min(robots.size(), poses.size());
+        for(int i = 0; i < count; i++) {
+            poses.copyTo(i, robots.get(i).getPosition());
+        }
+        repaint();
+    }
+
     public void paintComponent(java.awt.Graphics g) {
         super.paintComponent(g);
         for (Robot robot : robots) {
@@ -0,0 +1,25 @@
+package org.transformations;
+
+/**
+ * Plain loop implementation of {@link TransformKernel}.
+ */
+class ScalarTransformKernel implements TransformKernel {
+
+    @Override
+    public void transform(double m00, double m01, double m02, double m10, double m11, double m12,
+            double[] x, double[] y, int offset, int length) {
+        for(int i = offset; i < offset + length; i++) {
+            double px = x[i];
+            double py = y[i];
+            x[i] = m00 * px + m01 * py + m02;
+            y[i] = m10 * px + m11 * py + m12;
+        }
+    }
+
+    @Override
+    public void rotate(double angle, double[] theta, int offset, int length) {
+        for(int i = offset; i < offset + length; i++) {
+            theta[i] += angle;
+        }
+    }
+}
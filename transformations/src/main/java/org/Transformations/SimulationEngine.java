@@ -0,0 +1,243 @@
+package org.transformations;
+
+import java.util.Queue;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.concurrent.locks.LockSupport;
+import java.util.function.Consumer;
+
+/**
+ * Fixed-timestep simulation of a swarm's poses on a thread of its own, decoupled from the
+ * Swing event dispatch thread.
+ *
+ * Every tick advances the simulated time by exactly one timestep. In real-time mode ticks
+ * are paced to the wall clock, catching up at most {@link #MAX_CATCH_UP} ticks at once and
+ * dropping the rest of a backlog instead of spiralling; otherwise ticks run as fast as
+ * possible. After ticking the state is published as a {@link Snapshot} through a triple
+ * buffer: the simulation writes into a back buffer and swaps it with the ready buffer, the
+ * renderer swaps the ready buffer with its front buffer when a fresh one is available.
+ * Neither side ever waits for the other, so a slow UI drops frames instead of stalling the
+ * simulation. Changes from other threads, such as dragging a robot, are queued with
+ * {@link #submit(Consumer)} and applied at the start of the next tick.
+ */
+public class SimulationEngine {
+
+    /** Maximum number of ticks run back to back to catch up with the wall clock. */
+    public static final int MAX_CATCH_UP = 5;
+
+    private static final long PUBLISH_INTERVAL_NANOS = 1_000_000L;
+
+    /**
+     * Advances the poses by one timestep.
+     */
+    @FunctionalInterface
+    public interface Step {
+        /**
+         * @param poses The poses to update in place.
+         * @param dt The timestep in seconds.
+         * @param tick The number of ticks run before this one.
+         */
+        void step(PoseBuffer poses, double dt, long tick);
+    }
+
+    /**
+     * A published copy of the simulation state. A snapshot returned by
+     * {@link #latestSnapshot()} stays unchanged until the next call.
+     */
+    public static final class Snapshot {
+
+        private final PoseBuffer poses = new PoseBuffer();
+        private long tick;
+        private double time;
+        private volatile boolean fresh;
+
+        public PoseBuffer getPoses() {
+            return poses;
+        }
+
+        /** The number of ticks run when the snapshot was taken. */
+        public long getTick() {
+            return tick;
+        }
+
+        /** The simulated time in seconds when the snapshot was taken. */
+        public double getTime() {
+            return time;
+        }
+    }
+
+    private final PoseBuffer state;
+    private final double timestep;
+    private final Step step;
+    private final Queue<Consumer<PoseBuffer>> commands = new ConcurrentLinkedQueue<>();
+
+    private final AtomicReference<Snapshot> ready = new AtomicReference<>(new Snapshot());
+    private Snapshot back = new Snapshot();
+    private Snapshot front = new Snapshot();
+
+    private volatile boolean realTime = true;
+    private volatile boolean running;
+    private volatile long tick;
+    private Thread thread;
+
+    /**
+     * @param initial The initial poses, copied into the engine.
+     * @param timestep The simulated time per tick in seconds, e.g. 1.0 / 60.
+     * @param step The update run every tick.
+     */
+    public SimulationEngine(PoseBuffer initial, double timestep, Step step) {
+        if(!(timestep > 0)) {
+            throw new IllegalArgumentException("The timestep must be positive but was " + timestep + ".");
+        }
+        this.state = new PoseBuffer(Math.max(1, initial.size()));
+        this.state.copyFrom(initial);
+        this.timestep = timestep;
+        this.step = step;
+        publish();
+        front = ready.getAndSet(front);
+    }
+
+    /**
+     * Starts the simulation thread.
+     * @throws IllegalStateException if the simulation is already running.
+     */
+    public synchronized void start() {
+        if(thread != null) {
+            throw new IllegalStateException("The simulation is already running.");
+        }
+        running = true;
+        thread = new Thread(this::run, "simulation");
+        thread.setDaemon(true);
+        thread.start();
+    }
+
+    /**
+     * Stops the simulation thread after its current tick and waits for it to finish.
+     */
+    public synchronized void stop() {
+        if(thread == null) {
+            return;
+        }
+        running = false;
+        LockSupport.unpark(thread);
+        try {
+            thread.join();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+        thread = null;
+    }
+
+    public boolean isRunning() {
+        return running;
+    }
+
+    /**
+     * Chooses between pacing ticks to the wall clock (the default) and running them as
+     * fast as possible.
+     */
+    public void setRealTime(boolean realTime) {
+        this.realTime = realTime;
+    }
+
+    public boolean isRealTime() {
+        return realTime;
+    }
+
+    public double getTimestep() {
+        return timestep;
+    }
+
+    /** The number of ticks run so far. */
+    public long getTick() {
+        return tick;
+    }
+
+    /**
+     * Queues a change to the poses, applied by the simulation before its next tick.
+     * Safe to call from any thread.
+     */
+    public void submit(Consumer<PoseBuffer> command) {
+        commands.add(command);
+    }
+
+    /**
+     * Runs ticks on the calling thread, e.g. for headless batch runs, and publishes the result.
+     * @throws IllegalStateException if the simulation thread is running.
+     */
+    public synchronized void advance(int ticks) {
+        if(thread != null) {
+            throw new IllegalStateException("Cannot advance while the simulation thread is running.");
+        }
+        for(int i = 0; i < ticks; i++) {
+            tick();
+        }
+        publish();
+    }
+
+    /**
+     * Returns the most recently published snapshot. Meant for a single reader such as the
+     * Swing timer of a panel; the snapshot is reused once this method is called again.
+     */
+    public Snapshot latestSnapshot() {
+        if(ready.get().fresh) {
+            front.fresh = false;
+            front = ready.getAndSet(front);
+        }
+        return front;
+    }
+
+    private void run() {
+        long stepNanos = Math.max(1L, (long) (timestep * 1e9));
+        long next = System.nanoTime();
+        long lastPublish = next;
+        try {
+            while(running) {
+                if(realTime) {
+                    long now = System.nanoTime();
+                    if(now < next) {
+                        LockSupport.parkNanos(next - now);
+                        continue;
+                    }
+                    for(int steps = 0; steps < MAX_CATCH_UP && now >= next; steps++) {
+                        tick();
+                        next += stepNanos;
+                    }
+                    if(now >= next) {
+                        //Too far behind, drop the backlog instead of spiralling
+                        next = now + stepNanos;
+                    }
+                    publish();
+                } else {
+                    tick();
+                    long now = System.nanoTime();
+                    next = now;
+                    if(now - lastPublish >= PUBLISH_INTERVAL_NANOS) {
+                        publish();
+                        lastPublish = now;
+                    }
+                }
+            }
+        } finally {
+            publish();
+            running = false;
+        }
+    }
+
+    private void tick() {
+        Consumer<PoseBuffer> command;
+        while((command = commands.poll()) != null) {
+            command.accept(state);
+        }
+        step.step(state, timestep, tick);
+        tick++;
+    }
+
+    private void publish() {
+        back.poses.copyFrom(state);
+        back.tick = tick;
+        back.time = tick * timestep;
+        back.fresh = true;
+        back = ready.getAndSet(back);
+    }
+}
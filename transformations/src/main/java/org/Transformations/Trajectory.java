@@ -0,0 +1,172 @@
+package org.transformations;
+
+import java.util.Arrays;
+
+/**
+ * A scripted motion path through timed keyframe poses.
+ *
+ * Between two keyframes the pose follows the constant-velocity screw motion of SE(2), the
+ * same path as {@link Transformation2D#interpolate(Transformation2D, double)}. The twist of
+ * every segment is computed once when the trajectory is created, so evaluating a pose costs
+ * a binary search over the keyframe times and a single sine/cosine pair, and allocates
+ * nothing. Before the first and after the last keyframe the pose is held.
+ * Trajectories are immutable and can be evaluated from several threads at once.
+ */
+public class Trajectory {
+
+    private final double[] times;
+    //Start pose of every keyframe, with the sine and cosine of its orientation
+    private final double[] x;
+    private final double[] y;
+    private final double[] theta;
+    private final double[] sin;
+    private final double[] cos;
+    //Twist of the segment starting at every keyframe, scaled to the whole segment
+    private final double[] vx;
+    private final double[] vy;
+    private final double[] omega;
+
+    /**
+     * @param times The keyframe times in seconds, strictly increasing.
+     * @param keyframes The pose at every keyframe time, as the transformation from the origin.
+     */
+    public Trajectory(double[] times, Transformation2D[] keyframes) {
+        if(times.length == 0 || times.length != keyframes.length) {
+            throw new IllegalArgumentException("Expected at least one keyframe and one time per keyframe but got "
+                    + keyframes.length + " keyframes and " + times.length + " times.");
+        }
+        for(int i = 1; i < times.length; i++) {
+            if(!(times[i] > times[i - 1])) {
+                throw new IllegalArgumentException("Keyframe times must be strictly increasing, but time " + i + " is " + times[i] + ".");
+            }
+        }
+        int n = times.length;
+        this.times = times.clone();
+        x = new double[n];
+        y = new double[n];
+        theta = new double[n];
+        sin = new double[n];
+        cos = new double[n];
+        vx = new double[n];
+        vy = new double[n];
+        omega = new double[n];
+        for(int i = 0; i < n; i++) {
+            Transformation2D keyframe = keyframes[i];
+            x[i] = keyframe.getX();
+            y[i] = keyframe.getY();
+            theta[i] = keyframe.getTheta();
+            sin[i] = Math.sin(theta[i]);
+            cos[i] = Math.cos(theta[i]);
+            if(i + 1 < n) {
+                double[] twist = keyframe.inverse().compose(keyframes[i + 1]).log();
+                vx[i] = twist[0];
+                vy[i] = twist[1];
+                omega[i] = twist[2];
+            }
+        }
+    }
+
+    /**
+     * Creates a trajectory from keyframe poses given as parallel arrays.
+     */
+    public static Trajectory of(double[] times, double[] xs, double[] ys, double[] thetas) {
+        Transformation2D[] keyframes = new Transformation2D[times.length];
+        for(int i = 0; i < keyframes.length; i++) {
+            keyframes[i] = new Transformation2D(xs[i], ys[i], thetas[i]);
+        }
+        return new Trajectory(times, keyframes);
+    }
+
+    public double getStartTime() {
+        return times[0];
+    }
+
+    public double getEndTime() {
+        return times[times.length - 1];
+    }
+
+    public int getKeyframeCount() {
+        return times.length;
+    }
+
+    /**
+     * Writes the pose at the given time into a point.
+     */
+    public void evaluate(double time, OrientedPoint pose) {
+        evaluate(time, pose, null, null, null, 0);
+    }
+
+    /**
+     * Writes the pose at the given time into slot {@code index} of parallel pose arrays.
+     */
+    public void evaluate(double time, double[] xs, double[] ys, double[] thetas, int index) {
+        evaluate(time, null, xs, ys, thetas, index);
+    }
+
+    //Screw motion along the segment containing the time, written into the point if there
+    //is one and into the arrays otherwise, so that neither overload allocates
+    private void evaluate(double time, OrientedPoint pose, double[] xs, double[] ys, double[] thetas, int index) {
+        int segment = segmentAt(time);
+        double s = fraction(segment, time);
+        double phi = s * omega[segment];
+        double ux = s * vx[segment];
+        double uy = s * vy[segment];
+        double a = sinc(phi);
+        double b = cosc(phi);
+        double dx = a * ux - b * uy;
+        double dy = b * ux + a * uy;
+        double px = x[segment] + cos[segment] * dx - sin[segment] * dy;
+        double py = y[segment] + sin[segment] * dx + cos[segment] * dy;
+        double pt = theta[segment] + phi;
+        if(pose != null) {
+            pose.setPose(px, py, pt);
+        } else {
+            xs[index] = px;
+            ys[index] = py;
+            thetas[index] = pt;
+        }
+    }
+
+    /**
+     * Returns the pose at the given time as a transformation from the origin.
+     */
+    public Transformation2D transformAt(double time) {
+        OrientedPoint pose = new OrientedPoint(0, 0, 0);
+        evaluate(time, pose);
+        return new Transformation2D(pose.x, pose.y, pose.getOrientation());
+    }
+
+    //sin(phi)/phi, with its Taylor series near zero
+    private static double sinc(double phi) {
+        return Math.abs(phi) < 1e-6 ? 1.0 - phi * phi / 6.0 : Math.sin(phi) / phi;
+    }
+
+    //(1-cos(phi))/phi, with its Taylor series near zero
+    private static double cosc(double phi) {
+        return Math.abs(phi) < 1e-6 ? phi / 2.0 - phi * phi * phi / 24.0 : (1.0 - Math.cos(phi)) / phi;
+    }
+
+    /**
+     * Returns the keyframe that starts the segment containing the time, the last keyframe
+     * after the end.
+     */
+    private int segmentAt(double time) {
+        if(time <= times[0]) {
+            return 0;
+        }
+        int last = times.length - 1;
+        if(time >= times[last]) {
+            return last;
+        }
+        int index = Arrays.binarySearch(times, time);
+        return index >= 0 ? index : -index - 2;
+    }
+
+    private double fraction(int segment, double time) {
+        if(segment == times.length - 1) {
+            return 0.0;
+        }
+        double s = (time - times[segment]) / (times[segment + 1] - times[segment]);
+        return Math.max(0.0, s);
+    }
+}
@@ -0,0 +1,88 @@
+package org.transformations;
+
+import java.util.stream.IntStream;
+
+/**
+ * Plays back one {@link Trajectory} per robot. Every call evaluates all trajectories for
+ * a single point in time and writes the poses straight into a {@link PoseBuffer}; large
+ * swarms are split into blocks evaluated in parallel. Robots without a trajectory keep
+ * their pose, so scripted and otherwise simulated robots can share a buffer.
+ */
+public class TrajectoryPlayer {
+
+    /** Below this number of robots the poses are evaluated on the calling thread. */
+    public static final int PARALLEL_THRESHOLD = 4096;
+
+    private static final int BLOCK_SIZE = 1024;
+
+    private final Trajectory[] trajectories;
+
+    /**
+     * @param trajectories The trajectory of the robot at every pose index, null for robots
+     * that are not scripted. Several robots may share a trajectory.
+     */
+    public TrajectoryPlayer(Trajectory[] trajectories) {
+        this.trajectories = trajectories.clone();
+    }
+
+    public int size() {
+        return trajectories.length;
+    }
+
+    public Trajectory getTrajectory(int index) {
+        return trajectories[index];
+    }
+
+    /**
+     * Returns the time at which the last trajectory ends.
+     */
+    public double getEndTime() {
+        double end = Double.NEGATIVE_INFINITY;
+        for(Trajectory trajectory : trajectories) {
+            if(trajectory != null) {
+                end = Math.max(end, trajectory.getEndTime());
+            }
+        }
+        return end;
+    }
+
+    /**
+     * Writes the pose of every scripted robot at the given time into the buffer.
+     * @throws IllegalArgumentException if the buffer holds fewer poses than there are trajectories.
+     */
+    public void evaluate(double time, PoseBuffer poses) {
+        int n = trajectories.length;
+        if(poses.size() < n) {
+            throw new IllegalArgumentException("Expected at least " + n + " poses but the buffer holds " + poses.size() + ".");
+        }
+        double[] xs = poses.xs();
+        double[] ys = poses.ys();
+        double[] thetas = poses.thetas();
+        if(n < PARALLEL_THRESHOLD) {
+            evaluate(time, xs, ys, thetas, 0, n);
+            return;
+        }
+        int blocks = (n + BLOCK_SIZE - 1) / BLOCK_SIZE;
+        IntStream.range(0, blocks).parallel().forEach(block -> {
+            int from = block * BLOCK_SIZE;
+            evaluate(time, xs, ys, thetas, from, Math.min(n, from + BLOCK_SIZE));
+        });
+    }
+
+    /**
+     * Returns a simulation step that moves the robots along their trajectories, starting
+     * at the given time at tick 0.
+     */
+    public SimulationEngine.Step asStep(double startTime) {
+        return (poses, dt, tick) -> evaluate(startTime + (tick + 1) * dt, poses);
+    }
+
+    private void evaluate(double time, double[] xs, double[] ys, double[] thetas, int from, int to) {
+        for(int i = from; i < to; i++) {
+            Trajectory trajectory = trajectories[i];
+            if(trajectory != null) {
+                trajectory.evaluate(time, xs, ys, thetas, i);
+            }
+        }
+    }
+}
@@ -0,0 +1,34 @@
+package org.transformations;
+
+/**
+ * Inner loops of the batch transformation over parallel coordinate arrays.
+ * The Vector API implementation is used when the jdk.incubator.vector module is
+ * present at runtime, otherwise a plain scalar loop.
+ */
+interface TransformKernel {
+
+    TransformKernel INSTANCE = load();
+
+    /**
+     * Replaces every (x[i], y[i]) in the range by (m00 * x + m01 * y + m02, m10 * x + m11 * y + m12).
+     */
+    void transform(double m00, double m01, double m02, double m10, double m11, double m12,
+            double[] x, double[] y, int offset, int length);
+
+    /**
+     * Adds the angle to every orientation in the range.
+     */
+    void rotate(double angle, double[] theta, int offset, int length);
+
+    private static TransformKernel load() {
+        if(ModuleLayer.boot().findModule("jdk.incubator.vector").isPresent()) {
+            try {
+                return (TransformKernel) Class.forName("org.transformations.VectorTransformKernel")
+                        .getDeclaredConstructor().newInstance();
+            } catch (ReflectiveOperationException | LinkageError e) {
+                //Fall back to the scalar loop
+            }
+        }
+        return new ScalarTransformKernel();
+    }
+}
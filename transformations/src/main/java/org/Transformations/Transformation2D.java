@@ -5,17 +5,68 @@ import javax.swing.JPanel;
 
 /**
  * Class representing a 2D transformation including translation and rotation.
+ *
+ * The homogenous matrix
+ * <pre>
+ * | cos  -sin  x |
+ * | sin   cos  y |
+ * |  0     0   1 |
+ * </pre>
+ * is stored as its six variable entries. Transformations form the group SE(2): they can be
+ * composed, inverted, raised to integer powers and interpolated along the screw motion
+ * between them, so a whole motion program can be collapsed into one transformation before
+ * it is applied to the robots.
+ *
+ * A pose is itself an element of SE(2), and there are two ways to move it:
+ * {@link #applyTo(OrientedPoint)} multiplies the transformation from the left, acting in the
+ * world frame, so a rotation swings the pose around the origin;
+ * {@link #applyLocally(OrientedPoint)} multiplies it from the right, acting in the pose's own
+ * frame, so a rotation turns the pose in place and a translation moves it along its heading.
+ * Both agree with {@link #compose(Transformation2D)}: applying {@code a.compose(b)} equals
+ * applying b and then a in the world frame, or a and then b in the local frame.
+ * The older {@link #applyTransformation(OrientedPoint)} keeps its original behavior of
+ * turning poses in place under a pure rotation and therefore does not compose.
  */
 public class Transformation2D {
 
+    /** Rotations by multiples of this angle (π/6) use exact, precomputed sine and cosine. */
+    public static final double ROTATION_STEP = Math.PI / 6;
+    private static final int STEPS_PER_TURN = 12;
+    private static final double[] STEP_SIN = new double[STEPS_PER_TURN];
+    private static final double[] STEP_COS = new double[STEPS_PER_TURN];
+    private static final Transformation2D[] STEP_ROTATIONS = new Transformation2D[STEPS_PER_TURN];
+
+    static {
+        //Exact values for 0, π/6, π/3 and π/2, mirrored into the other quadrants
+        double[] quadrant = {0.0, 0.5, Math.sqrt(3.0) / 2.0, 1.0};
+        for(int k = 0; k < STEPS_PER_TURN; k++) {
+            int step = k % 3;
+            int quarter = k / 3;
+            double sin = quadrant[step];
+            double cos = quadrant[3 - step];
+            switch(quarter) {
+                case 0: STEP_SIN[k] = sin; STEP_COS[k] = cos; break;
+                case 1: STEP_SIN[k] = cos; STEP_COS[k] = 0.0 - sin; break;
+                case 2: STEP_SIN[k] = 0.0 - sin; STEP_COS[k] = -cos; break;
+                default: STEP_SIN[k] = -cos; STEP_COS[k] = sin; break;
+            }
+        }
+        for(int k = 0; k < STEPS_PER_TURN; k++) {
+            STEP_ROTATIONS[k] = new Transformation2D(0, 0, k * ROTATION_STEP);
+        }
+    }
+
+    /** The identity transformation. */
+    public static final Transformation2D IDENTITY = STEP_ROTATIONS[0];
+
     /** The x-coordinate of the translation. */
-    private double x;
+    private final double x;
     /** The y-coordinate of the translation. */
-    private double y;
+    private final double y;
     /** The rotation angle in radians. */
-    private double theta;
-    /** The transformation matrix. */
-    private double[][] matrix;
+    private final double theta;
+    /** The rotation part of the transformation matrix, x and y form its third column. */
+    private final double m00, m01, m10, m11;
 
     /**Constructor to initialize the transformation.
      * @param x The x-coordinate of the translation.
@@ -28,27 +79,185 @@ public class Transformation2D {
         this.y = y;
         this.theta = theta;
 
-        matrix = new double[3][3];
+        double sin;
+        double cos;
+        int step = stepOf(theta);
+        if(step >= 0) {
+            sin = STEP_SIN[step];
+            cos = STEP_COS[step];
+        } else {
+            sin = Math.sin(theta);
+            cos = Math.cos(theta);
+        }
 
-        double sin = Math.sin(theta);
-        double cos = Math.cos(theta);
+        m00 = cos;
+        m01 = -sin;
+        m10 = sin;
+        m11 = cos;
+    }
 
-        matrix[0][0] = cos;
-        matrix[0][1] = -sin;
-        matrix[0][2] = x;
+    private Transformation2D(double x, double y, double theta, double sin, double cos) {
+        this.x = x;
+        this.y = y;
+        this.theta = theta;
+        m00 = cos;
+        m01 = -sin;
+        m10 = sin;
+        m11 = cos;
+    }
 
-        matrix[1][0] = sin;
-        matrix[1][1] = cos;
-        matrix[1][2] = y;
+    /**
+     * Returns the shared rotation by a multiple of {@link #ROTATION_STEP}, e.g. 3 for π/2 or
+     * 2 for π/3, without computing any sine or cosine.
+     * @param steps The number of π/6 steps, negative values rotate clockwise.
+     */
+    public static Transformation2D rotation(int steps) {
+        if(steps >= 0 && steps < STEPS_PER_TURN) {
+            return STEP_ROTATIONS[steps];
+        }
+        return new Transformation2D(0, 0, steps * ROTATION_STEP);
+    }
 
-        matrix[2][0] = 0;
-        matrix[2][1] = 0;
-        matrix[2][2] = 1;
+    /**
+     * Returns the index of the cached rotation matching the angle, or -1 if the angle is not
+     * a multiple of π/6.
+     */
+    private static int stepOf(double theta) {
+        double steps = Math.rint(theta / ROTATION_STEP);
+        if(Math.abs(steps) > 1e6 || Math.abs(theta - steps * ROTATION_STEP) > 1e-12) {
+            return -1;
+        }
+        return Math.floorMod((long) steps, STEPS_PER_TURN);
+    }
 
+    public double getX() {
+        return x;
+    }
+
+    public double getY() {
+        return y;
+    }
+
+    public double getTheta() {
+        return theta;
+    }
+
+    /**
+     * Returns the transformation that applies the other transformation first and this one
+     * second, i.e. the matrix product this · other.
+     * @param other The transformation to apply first.
+     * @return The combined transformation.
+     */
+    public Transformation2D compose(Transformation2D other) {
+        double sin = m10 * other.m00 + m11 * other.m10;
+        double cos = m00 * other.m00 + m01 * other.m10;
+        return new Transformation2D(
+                m00 * other.x + m01 * other.y + x,
+                m10 * other.x + m11 * other.y + y,
+                theta + other.theta, sin, cos);
+    }
+
+    /**
+     * Returns the transformation that undoes this one, i.e. the inverse matrix.
+     */
+    public Transformation2D inverse() {
+        // The inverse of [R t] is [R^T -R^T t]
+        return new Transformation2D(
+                -(m00 * x + m10 * y),
+                -(m01 * x + m11 * y),
+                -theta, -m10, m00);
+    }
+
+    /**
+     * Returns this transformation applied n times in a row, using O(log n) compositions.
+     * @param n The number of applications, negative values repeat the inverse.
+     */
+    public Transformation2D power(int n) {
+        Transformation2D base = n < 0 ? inverse() : this;
+        long remaining = Math.abs((long) n);
+        Transformation2D result = IDENTITY;
+        while(remaining > 0) {
+            if((remaining & 1) != 0) {
+                result = result.compose(base);
+            }
+            remaining >>= 1;
+            if(remaining > 0) {
+                base = base.compose(base);
+            }
+        }
+        return result;
     }
 
     /**
-     * Applies the transformation to an OrientedPoint.
+     * Returns the transformation part of the way from this one to the target, following the
+     * constant-velocity screw motion between them: {@code this · exp(t · log(this⁻¹ · target))}.
+     * The rotation runs through the difference of the two angles, so a target with an angle
+     * larger by 2π interpolates a full turn.
+     * @param target The transformation reached at t = 1.
+     * @param t The fraction of the way, 0 gives this transformation.
+     * @return The interpolated transformation.
+     */
+    public Transformation2D interpolate(Transformation2D target, double t) {
+        double[] twist = inverse().compose(target).log();
+        return compose(exp(twist[0] * t, twist[1] * t, twist[2] * t));
+    }
+
+    /**
+     * Returns the transformation reached by moving with the constant body velocity
+     * (vx, vy, omega) for one time unit, the exponential map of SE(2).
+     * @param vx The velocity along the local x-axis.
+     * @param vy The velocity along the local y-axis.
+     * @param omega The angular velocity in radians.
+     * @return The transformation at the end of the motion.
+     */
+    public static Transformation2D exp(double vx, double vy, double omega) {
+        double sin = Math.sin(omega);
+        double cos = Math.cos(omega);
+        double a;
+        double b;
+        if(Math.abs(omega) < 1e-6) {
+            //Taylor series of sin(w)/w and (1-cos(w))/w
+            double omega2 = omega * omega;
+            a = 1.0 - omega2 / 6.0;
+            b = omega / 2.0 - omega * omega2 / 24.0;
+        } else {
+            a = sin / omega;
+            b = (1.0 - cos) / omega;
+        }
+        return new Transformation2D(a * vx - b * vy, b * vx + a * vy, omega, sin, cos);
+    }
+
+    /**
+     * Returns the body velocity (vx, vy, omega) that reaches this transformation in one time
+     * unit, the inverse of {@link #exp(double, double, double)}. The angle is taken as is,
+     * not normalized. Whole turns without a unique screw motion move in a straight line.
+     * @return The twist as {vx, vy, omega}.
+     */
+    public double[] log() {
+        double omega = theta;
+        double a;
+        double b;
+        if(Math.abs(omega) < 1e-6) {
+            double omega2 = omega * omega;
+            a = 1.0 - omega2 / 6.0;
+            b = omega / 2.0 - omega * omega2 / 24.0;
+        } else {
+            a = Math.sin(omega) / omega;
+            b = (1.0 - Math.cos(omega)) / omega;
+        }
+        double determinant = a * a + b * b;
+        if(determinant < 1e-12) {
+            return new double[] {x, y, omega};
+        }
+        return new double[] {(a * x + b * y) / determinant, (a * y - b * x) / determinant, omega};
+    }
+
+    /**
+     * Applies the transformation to an OrientedPoint. A pure rotation turns the point where
+     * it stands; any other transformation multiplies the position with the matrix and turns
+     * the orientation by the angle. Because of the special case this does not agree with
+     * {@link #compose(Transformation2D)}; use {@link #applyTo(OrientedPoint)} or
+     * {@link #applyLocally(OrientedPoint)} for transformations that are composed.
      * @param point The point to transform.
      * @return The transformed point.
      */
@@ -61,20 +270,115 @@ public class Transformation2D {
             return new OrientedPoint(x, y, orientation + theta);
         }
 
-        double[][] homogenousCoordinates = {{x}, {y}, {1}};
-        // Matrix multiplication
-        for(int row = 0; row < matrix.length; row++) {
-            homogenousCoordinates[row][0] = (matrix[row][0] * x + matrix[row][1] * y + matrix[row][2] * 1);
+        // Matrix multiplication with the homogenous coordinates (x, y, 1)
+        double transformedX = m00 * x + m01 * y + this.x;
+        double transformedY = m10 * x + m11 * y + this.y;
+        return new OrientedPoint(transformedX, transformedY, orientation + theta);
+    }
+
+    /**
+     * Applies the transformation in place in the world frame, i.e. this transformation times
+     * the pose: the position is multiplied with the matrix and the orientation turned by the
+     * angle, so a pure rotation swings the point around the origin.
+     * @param point The point to transform, overwritten with the result.
+     */
+    public void applyTo(OrientedPoint point) {
+        double x = point.x;
+        double y = point.y;
+        point.setPose(m00 * x + m01 * y + this.x, m10 * x + m11 * y + this.y, point.getOrientation() + theta);
+    }
+
+    /**
+     * Applies the transformation in place in the point's own frame, i.e. the pose times this
+     * transformation: the translation is turned by the point's orientation before it is
+     * added, and a pure rotation turns the point where it stands.
+     * @param point The point to transform, overwritten with the result.
+     */
+    public void applyLocally(OrientedPoint point) {
+        double orientation = point.getOrientation();
+        if(this.x == 0 && this.y == 0) {
+            point.setOrientation(orientation + theta);
+            return;
+        }
+        double sin = Math.sin(orientation);
+        double cos = Math.cos(orientation);
+        point.setPose(point.x + cos * this.x - sin * this.y, point.y + sin * this.x + cos * this.y, orientation + theta);
+    }
+
+    /**
+     * Applies the transformation in place to all poses stored in parallel arrays.
+     * @param xs The x-coordinates of the poses.
+     * @param ys The y-coordinates of the poses.
+     * @param thetas The orientations of the poses in radians.
+     */
+    public void applyTransformation(double[] xs, double[] ys, double[] thetas) {
+        applyTransformation(xs, ys, thetas, 0, xs.length);
+    }
+
+    /**
+     * Applies the transformation in place to a range of poses stored in parallel arrays,
+     * with the same semantics as {@link #applyTransformation(OrientedPoint)}: a pure
+     * rotation turns every pose where it stands.
+     * @param xs The x-coordinates of the poses.
+     * @param ys The y-coordinates of the poses.
+     * @param thetas The orientations of the poses in radians.
+     * @param offset The index of the first pose to transform.
+     * @param length The number of poses to transform.
+     */
+    public void applyTransformation(double[] xs, double[] ys, double[] thetas, int offset, int length) {
+        checkRange(xs, ys, thetas, offset, length);
+        if(this.x != 0 || this.y != 0) {
+            TransformKernel.INSTANCE.transform(m00, m01, x, m10, m11, y, xs, ys, offset, length);
+        }
+        if(theta != 0) {
+            TransformKernel.INSTANCE.rotate(theta, thetas, offset, length);
+        }
+    }
+
+    /**
+     * Applies the transformation in place in the world frame to all poses stored in parallel
+     * arrays.
+     * @param xs The x-coordinates of the poses.
+     * @param ys The y-coordinates of the poses.
+     * @param thetas The orientations of the poses in radians.
+     */
+    public void applyTo(double[] xs, double[] ys, double[] thetas) {
+        applyTo(xs, ys, thetas, 0, xs.length);
+    }
+
+    /**
+     * Applies the transformation in place to a range of poses stored in parallel arrays,
+     * with the same semantics as {@link #applyTo(OrientedPoint)}, so that applying
+     * {@code a.compose(b)} equals applying b and then a.
+     * @param xs The x-coordinates of the poses.
+     * @param ys The y-coordinates of the poses.
+     * @param thetas The orientations of the poses in radians.
+     * @param offset The index of the first pose to transform.
+     * @param length The number of poses to transform.
+     */
+    public void applyTo(double[] xs, double[] ys, double[] thetas, int offset, int length) {
+        checkRange(xs, ys, thetas, offset, length);
+        //Positions only stay put under the identity matrix
+        if(this.x != 0 || this.y != 0 || m10 != 0 || m00 != 1) {
+            TransformKernel.INSTANCE.transform(m00, m01, x, m10, m11, y, xs, ys, offset, length);
+        }
+        if(theta != 0) {
+            TransformKernel.INSTANCE.rotate(theta, thetas, offset, length);
+        }
+    }
+
+    private static void checkRange(double[] xs, double[] ys, double[] thetas, int offset, int length) {
+        if(offset < 0 || length < 0 || offset + length > xs.length || offset + length > ys.length || offset + length > thetas.length) {
+            throw new IllegalArgumentException("Range " + offset + " + " + length + " exceeds the pose arrays.");
         }
-        return new OrientedPoint(homogenousCoordinates[0][0], homogenousCoordinates[1][0], orientation + theta);
     }
 
     @Override
     public String toString() {
         return "2DTransformation[x: " + x + ", y: " + y + ", theta: " + theta + "]\n"
-            + String.format("%.2f, %.2f, %d", matrix[0][0], matrix[0][1], (int)matrix[0][2]) + "\n"
-            + String.format("%.2f, %.2f, %d", matrix[1][0], matrix[1][1], (int)matrix[1][2]) + "\n"
-            + String.format("%d, %d, %d", (int)matrix[2][0], (int)matrix[2][1], (int)matrix[2][2]);
+            + String.format("%.2f, %.2f, %d", m00, m01, (int)x) + "\n"
+            + String.format("%.2f, %.2f, %d", m10, m11, (int)y) + "\n"
+            + String.format("%d, %d, %d", 0, 0, 1);
     }
 
 
@@ -95,55 +399,51 @@ public class Transformation2D {
 
         // Translate up, down, left, right by 2 unit and rotate by 90 degrees
         java.awt.Button upOne = new java.awt.Button("Translate (2,0)");
+        Transformation2D up1 = new Transformation2D(2, 0, 0);
         upOne.addActionListener(e -> {
             for(Robot r : panel.getRobots()) {
-                Transformation2D up1 = new Transformation2D(2, 0, 0);
-                OrientedPoint transformedPosition = up1.applyTransformation(r.getPosition());
-                r.setPosition(transformedPosition);
+                up1.applyTo(r.getPosition());
             }
             panel.repaint();
         });
         buttonPanel.add(upOne); 
 
         java.awt.Button rightOne = new java.awt.Button("Translate (0,-2)");
+        Transformation2D right1 = new Transformation2D(0, 2, 0);
         rightOne.addActionListener(e -> {
             for(Robot r : panel.getRobots()) {
-                Transformation2D right1 = new Transformation2D(0, 2, 0);
-                OrientedPoint transformedPosition = right1.applyTransformation(r.getPosition());
-                r.setPosition(transformedPosition);
+                right1.applyTo(r.getPosition());
             }
             panel.repaint();
         });
         buttonPanel.add(rightOne);
 
         java.awt.Button downOne = new java.awt.Button("Translate (0,2)");
+        Transformation2D down1 = new Transformation2D(0, -2, 0);
         downOne.addActionListener(e -> {
             for(Robot r : panel.getRobots()) {
-                Transformation2D down1 = new Transformation2D(0, -2, 0);
-                OrientedPoint transformedPosition = down1.applyTransformation(r.getPosition());
-                r.setPosition(transformedPosition);
+                down1.applyTo(r.getPosition());
             }
             panel.repaint();
         });
         buttonPanel.add(downOne);
 
         java.awt.Button leftOne = new java.awt.Button("Translate (-2,0)");
+        Transformation2D left1 = new Transformation2D(-2, 0, 0);
         leftOne.addActionListener(e -> {
             for(Robot r : panel.getRobots()) {
-                Transformation2D left1 = new Transformation2D(-2, 0, 0);
-                OrientedPoint transformedPosition = left1.applyTransformation(r.getPosition());
-                r.setPosition(transformedPosition);
+                left1.applyTo(r.getPosition());
             }
             panel.repaint();
         });
         buttonPanel.add(leftOne);
 
         java.awt.Button rotate90Button = new java.awt.Button("Rotate 90°");
+        Transformation2D rotate90 = Transformation2D.rotation(3);
         rotate90Button.addActionListener(e -> {
             for(Robot r : panel.getRobots()) {
-                Transformation2D rotate90 = new Transformation2D(0, 0, Math.PI / 2);
-                OrientedPoint transformedPosition = rotate90.applyTransformation(r.getPosition());
-                r.setPosition(transformedPosition);
+                //Turn every robot where it stands
+                rotate90.applyLocally(r.getPosition());
             }
             panel.repaint();
         });
@@ -0,0 +1,48 @@
+package org.transformations;
+
+import jdk.incubator.vector.DoubleVector;
+import jdk.incubator.vector.VectorSpecies;
+
+/**
+ * {@link TransformKernel} on the incubating Vector API, processing as many poses per
+ * instruction as the preferred vector width allows. Only loaded when the
+ * jdk.incubator.vector module is present (run with --add-modules jdk.incubator.vector).
+ * Multiplications and additions are kept separate instead of fused so that results are
+ * bit-identical to {@link ScalarTransformKernel}.
+ */
+class VectorTransformKernel implements TransformKernel {
+
+    private static final VectorSpecies<Double> SPECIES = DoubleVector.SPECIES_PREFERRED;
+
+    @Override
+    public void transform(double m00, double m01, double m02, double m10, double m11, double m12,
+            double[] x, double[] y, int offset, int length) {
+        int i = offset;
+        int upperBound = offset + SPECIES.loopBound(length);
+        for(; i < upperBound; i += SPECIES.length()) {
+            DoubleVector px = DoubleVector.fromArray(SPECIES, x, i);
+            DoubleVector py = DoubleVector.fromArray(SPECIES, y, i);
+            px.mul(m00).add(py.mul(m01)).add(m02).intoArray(x, i);
+            px.mul(m10).add(py.mul(m11)).add(m12).intoArray(y, i);
+        }
+        //Remaining poses that do not fill a whole vector
+        for(; i < offset + length; i++) {
+            double px = x[i];
+            double py = y[i];
+            x[i] = m00 * px + m01 * py + m02;
+            y[i] = m10 * px + m11 * py + m12;
+        }
+    }
+
+    @Override
+    public void rotate(double angle, double[] theta, int offset, int length) {
+        int i = offset;
+        int upperBound = offset + SPECIES.loopBound(length);
+        for(; i < upperBound; i += SPECIES.length()) {
+            DoubleVector.fromArray(SPECIES, theta, i).add(angle).intoArray(theta, i);
+        }
+        for(; i < offset + length; i++) {
+            theta[i] += angle;
+        }
+    }
+}
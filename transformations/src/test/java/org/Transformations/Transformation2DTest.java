@@ -0,0 +1,113 @@
+package org.transformations;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+import org.junit.jupiter.api.Test;
+
+class Transformation2DTest {
+
+    private static final double EPSILON = 1e-9;
+
+    private static final Transformation2D[] STEPS = {
+        new Transformation2D(2, 0, 0),
+        new Transformation2D(0, -2, 0),
+        Transformation2D.rotation(3),
+        new Transformation2D(3.5, -1.25, 0.7),
+        new Transformation2D(-4, 6, -2.1),
+    };
+
+    private static void assertPose(OrientedPoint expected, OrientedPoint actual) {
+        assertEquals(expected.x, actual.x, EPSILON);
+        assertEquals(expected.y, actual.y, EPSILON);
+        assertEquals(expected.getOrientation(), actual.getOrientation(), EPSILON);
+    }
+
+    @Test
+    void composedTransformationMatchesStepsInTheWorldFrame() {
+        for(Transformation2D a : STEPS) {
+            for(Transformation2D b : STEPS) {
+                OrientedPoint stepwise = new OrientedPoint(1.5, -3, 0.4);
+                b.applyTo(stepwise);
+                a.applyTo(stepwise);
+
+                OrientedPoint composed = new OrientedPoint(1.5, -3, 0.4);
+                a.compose(b).applyTo(composed);
+                assertPose(stepwise, composed);
+            }
+        }
+    }
+
+    @Test
+    void composedTransformationMatchesStepsInTheLocalFrame() {
+        for(Transformation2D a : STEPS) {
+            for(Transformation2D b : STEPS) {
+                OrientedPoint stepwise = new OrientedPoint(1.5, -3, 0.4);
+                a.applyLocally(stepwise);
+                b.applyLocally(stepwise);
+
+                OrientedPoint composed = new OrientedPoint(1.5, -3, 0.4);
+                a.compose(b).applyLocally(composed);
+                assertPose(stepwise, composed);
+            }
+        }
+    }
+
+    @Test
+    void batchTransformMatchesSinglePoses() {
+        double[] xs = {1.5, -7, 0};
+        double[] ys = {-3, 2.5, 0};
+        double[] thetas = {0.4, -1, 3};
+        for(Transformation2D t : STEPS) {
+            double[] bx = xs.clone();
+            double[] by = ys.clone();
+            double[] bt = thetas.clone();
+            t.applyTo(bx, by, bt);
+            for(int i = 0; i < xs.length; i++) {
+                OrientedPoint single = new OrientedPoint(xs[i], ys[i], thetas[i]);
+                t.applyTo(single);
+                assertPose(single, new OrientedPoint(bx[i], by[i], bt[i]));
+            }
+
+            bx = xs.clone();
+            by = ys.clone();
+            bt = thetas.clone();
+            t.applyTransformation(bx, by, bt);
+            for(int i = 0; i < xs.length; i++) {
+                OrientedPoint single = t.applyTransformation(new OrientedPoint(xs[i], ys[i], thetas[i]));
+                assertPose(single, new OrientedPoint(bx[i], by[i], bt[i]));
+            }
+        }
+    }
+
+    @Test
+    void applyTransformationKeepsTurningPureRotationsInPlace() {
+        OrientedPoint pose = Transformation2D.rotation(3).applyTransformation(new OrientedPoint(10, 20, 0));
+        assertPose(new OrientedPoint(10, 20, Math.PI / 2), pose);
+    }
+
+    @Test
+    void localRotationTurnsInPlace() {
+        OrientedPoint pose = new OrientedPoint(10, 20, 0);
+        Transformation2D.rotation(3).applyLocally(pose);
+        assertPose(new OrientedPoint(10, 20, Math.PI / 2), pose);
+    }
+
+    @Test
+    void powerRepeatsComposition() {
+        Transformation2D t = new Transformation2D(3.5, -1.25, 0.7);
+        Transformation2D repeated = Transformation2D.IDENTITY;
+        for(int i = 0; i < 5; i++) {
+            repeated = repeated.compose(t);
+        }
+        OrientedPoint expected = new OrientedPoint(1, 2, 3);
+        repeated.applyTo(expected);
+        OrientedPoint actual = new OrientedPoint(1, 2, 3);
+        t.power(5).applyTo(actual);
+        assertPose(expected, actual);
+
+        OrientedPoint roundTrip = new OrientedPoint(1, 2, 3);
+        t.power(5).applyTo(roundTrip);
+        t.power(-5).applyTo(roundTrip);
+        assertPose(new OrientedPoint(1, 2, 3), roundTrip);
+    }
+}